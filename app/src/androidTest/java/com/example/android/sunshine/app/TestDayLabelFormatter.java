@@ -0,0 +1,123 @@
+package com.example.android.sunshine.app;
+
+import android.test.AndroidTestCase;
+import android.text.format.DateUtils;
+import android.text.format.Time;
+import android.util.Log;
+
+import java.text.SimpleDateFormat;
+
+public class TestDayLabelFormatter extends AndroidTestCase {
+    private static final String LOG_TAG = TestDayLabelFormatter.class.getSimpleName();
+
+    // Forecast rows in the list, and how many times the list is scrolled through.
+    private static final int ROWS = 14;
+    private static final int SCROLL_PASSES = 500;
+
+    public void testLabels() {
+        long now = System.currentTimeMillis();
+        DayLabelFormatter formatter = DayLabelFormatter.get(mContext);
+
+        assertEquals(mContext.getString(R.string.today), formatter.getDayName(now));
+        assertEquals(mContext.getString(R.string.tomorrow),
+                formatter.getDayName(now + DateUtils.DAY_IN_MILLIS));
+        assertEquals(new SimpleDateFormat("EEEE").format(now + 3 * DateUtils.DAY_IN_MILLIS),
+                formatter.getFriendlyDayString(now + 3 * DateUtils.DAY_IN_MILLIS, false));
+        assertEquals(new SimpleDateFormat("EEE MMM dd").format(now + 10 * DateUtils.DAY_IN_MILLIS),
+                formatter.getFriendlyDayString(now + 10 * DateUtils.DAY_IN_MILLIS, true));
+        assertEquals(mContext.getString(R.string.format_full_friendly_date,
+                        mContext.getString(R.string.today), new SimpleDateFormat("MMMM dd").format(now)),
+                formatter.getFriendlyDayString(now, true));
+        assertEquals(mContext.getString(R.string.today), formatter.getFriendlyDayString(now, false));
+    }
+
+    public void testMemoized() {
+        long now = System.currentTimeMillis();
+        DayLabelFormatter formatter = DayLabelFormatter.get(mContext);
+        assertSame(formatter.getFriendlyDayString(now + 3 * DateUtils.DAY_IN_MILLIS, false),
+                formatter.getFriendlyDayString(now + 3 * DateUtils.DAY_IN_MILLIS + 1000, false));
+        assertSame(formatter, DayLabelFormatter.get(mContext));
+    }
+
+    public void testDayRollover() {
+        long now = System.currentTimeMillis();
+        DayLabelFormatter formatter = DayLabelFormatter.get(mContext);
+        assertFalse(formatter.checkToday(now));
+        int today = formatter.getCurrentJulianDay();
+
+        assertTrue(formatter.checkToday(now + DateUtils.DAY_IN_MILLIS));
+        assertEquals(today + 1, formatter.getCurrentJulianDay());
+
+        // Back to the real clock.
+        assertTrue(formatter.checkToday(now));
+        assertEquals(today, formatter.getCurrentJulianDay());
+    }
+
+    /**
+     * Binds the date of every row of the forecast list repeatedly, as scrolling does, with the
+     * formatter and with the previous implementation that built a Time and SimpleDateFormat per
+     * call.
+     */
+    public void testScrollBindBenchmark() {
+        long[] dates = new long[ROWS];
+        long now = System.currentTimeMillis();
+        for (int i = 0; i < ROWS; i++) {
+            dates[i] = now + i * DateUtils.DAY_IN_MILLIS;
+        }
+
+        // Warm up both paths.
+        bindWithFormatter(dates, 10);
+        bindPerCall(dates, 10);
+
+        long start = System.nanoTime();
+        int formatterChecksum = bindWithFormatter(dates, SCROLL_PASSES);
+        long formatterNs = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int perCallChecksum = bindPerCall(dates, SCROLL_PASSES);
+        long perCallNs = System.nanoTime() - start;
+
+        assertEquals(perCallChecksum, formatterChecksum);
+        long binds = (long) SCROLL_PASSES * ROWS;
+        Log.i(LOG_TAG, "Day label bind: formatter " + formatterNs / binds + " ns, per call "
+                + perCallNs / binds + " ns");
+    }
+
+    private int bindWithFormatter(long[] dates, int passes) {
+        int checksum = 0;
+        for (int pass = 0; pass < passes; pass++) {
+            for (int row = 0; row < dates.length; row++) {
+                checksum += Utility.getFriendlyDayString(mContext, dates[row], row == 0).length();
+            }
+        }
+        return checksum;
+    }
+
+    private int bindPerCall(long[] dates, int passes) {
+        int checksum = 0;
+        for (int pass = 0; pass < passes; pass++) {
+            for (int row = 0; row < dates.length; row++) {
+                checksum += legacyFriendlyDayString(dates[row], row == 0).length();
+            }
+        }
+        return checksum;
+    }
+
+    private String legacyFriendlyDayString(long dateInMillis, boolean displayLongToday) {
+        Time time = new Time();
+        time.setToNow();
+        int julianDay = Time.getJulianDay(dateInMillis, time.gmtoff);
+        int currentJulianDay = Time.getJulianDay(System.currentTimeMillis(), time.gmtoff);
+        if (displayLongToday && julianDay == currentJulianDay) {
+            return mContext.getString(R.string.format_full_friendly_date,
+                    mContext.getString(R.string.today), new SimpleDateFormat("MMMM dd").format(dateInMillis));
+        } else if (julianDay == currentJulianDay) {
+            return mContext.getString(R.string.today);
+        } else if (julianDay == currentJulianDay + 1) {
+            return mContext.getString(R.string.tomorrow);
+        } else if (julianDay < currentJulianDay + 7) {
+            return new SimpleDateFormat("EEEE").format(dateInMillis);
+        }
+        return new SimpleDateFormat("EEE MMM dd").format(dateInMillis);
+    }
+}
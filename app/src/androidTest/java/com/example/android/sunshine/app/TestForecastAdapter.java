@@ -0,0 +1,139 @@
+package com.example.android.sunshine.app;
+
+import android.database.MatrixCursor;
+import android.support.v7.widget.LinearLayoutManager;
+import android.support.v7.widget.RecyclerView;
+import android.test.AndroidTestCase;
+import android.text.format.DateUtils;
+import android.util.Log;
+import android.view.ContextThemeWrapper;
+import android.view.View;
+import android.widget.AbsListView;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class TestForecastAdapter extends AndroidTestCase {
+    private static final String LOG_TAG = TestForecastAdapter.class.getSimpleName();
+
+    private static final int ROWS = 14;
+    private static final int SCROLL_PASSES = 200;
+    private static final int[] WEATHER_IDS = {211, 301, 501, 511, 601, 741, 781, 800, 801, 804};
+
+    private ForecastAdapter mAdapter;
+    private RecyclerView mRecyclerView;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        ContextThemeWrapper context = new ContextThemeWrapper(mContext, R.style.AppTheme);
+        mRecyclerView = new RecyclerView(context);
+        mRecyclerView.setLayoutManager(new LinearLayoutManager(context));
+        mAdapter = new ForecastAdapter(context, null, new View(context), AbsListView.CHOICE_MODE_NONE);
+    }
+
+    public void testRowsAreFormatted() {
+        List<ForecastRow> rows = buildRows();
+        ForecastRow today = rows.get(0);
+
+        assertEquals(Utility.getFriendlyDayString(mContext, today.date, true), today.longDateLabel);
+        assertEquals(Utility.getFriendlyDayString(mContext, today.date, false), today.dateLabel);
+        assertEquals(Utility.getStringForWeatherCondition(mContext, WEATHER_IDS[0]), today.description);
+        assertEquals(mContext.getString(R.string.a11y_high_temp, today.high), today.highContentDescription);
+        assertEquals(rows.get(1).dateLabel, rows.get(1).longDateLabel);
+        assertEquals("iconView" + rows.get(1).date, rows.get(1).transitionName);
+
+        mAdapter.swapRows(rows);
+        assertEquals(ROWS, mAdapter.getItemCount());
+        mAdapter.swapRows(null);
+        assertEquals(0, mAdapter.getItemCount());
+    }
+
+    public void testUpdateUnchanged() {
+        long now = System.currentTimeMillis();
+        ForecastUpdate update = ForecastUpdate.compute(buildRows(now, 0, ROWS, 21.5),
+                buildRows(now, 0, ROWS, 21.5));
+        assertEquals(0, update.getOperationCount());
+        assertFalse(update.isFullRefresh());
+        assertTrue(ForecastUpdate.compute(null, buildRows(now, 0, ROWS, 21.5)).isFullRefresh());
+    }
+
+    public void testUpdateDayRollsOver() {
+        long now = System.currentTimeMillis();
+        // Yesterday drops off the top and a new day is added at the bottom. The new first row
+        // changes because it now uses the "today" label.
+        ForecastUpdate update = ForecastUpdate.compute(buildRows(now, -1, ROWS, 21.5),
+                buildRows(now, 0, ROWS, 21.5));
+        assertEquals("r0+1 c0+1 i13+1", update.toString());
+    }
+
+    public void testUpdateUnitsChange() {
+        long now = System.currentTimeMillis();
+        ForecastUpdate update = ForecastUpdate.compute(buildRows(now, 0, ROWS, 21.5),
+                buildRows(now, 0, ROWS, 30.5));
+        assertEquals("c0+" + ROWS, update.toString());
+    }
+
+    public void testUpdateRowsAdded() {
+        long now = System.currentTimeMillis();
+        ForecastUpdate update = ForecastUpdate.compute(buildRows(now, 0, 4, 21.5),
+                buildRows(now, 0, ROWS, 21.5));
+        assertEquals("i4+" + (ROWS - 4), update.toString());
+
+        update = ForecastUpdate.compute(buildRows(now, 0, ROWS, 21.5), buildRows(now, 0, 0, 21.5));
+        assertEquals("r0+" + ROWS, update.toString());
+    }
+
+    /**
+     * Binds every row of the list repeatedly, as scrolling does, and reports the time per bind
+     * next to the time it takes to format a row, which binding used to include.
+     */
+    public void testScrollBindBenchmark() {
+        List<ForecastRow> rows = buildRows();
+        mAdapter.swapRows(rows);
+        ForecastAdapter.ForecastAdapterViewHolder[] holders = new ForecastAdapter.ForecastAdapterViewHolder[2];
+        for (int viewType = 0; viewType < holders.length; viewType++) {
+            holders[viewType] = mAdapter.onCreateViewHolder(mRecyclerView, viewType);
+        }
+
+        long start = System.nanoTime();
+        for (int pass = 0; pass < SCROLL_PASSES; pass++) {
+            for (int position = 0; position < ROWS; position++) {
+                mAdapter.onBindViewHolder(holders[mAdapter.getItemViewType(position)], position);
+            }
+        }
+        long bindNs = (System.nanoTime() - start) / (SCROLL_PASSES * ROWS);
+
+        start = System.nanoTime();
+        for (int pass = 0; pass < SCROLL_PASSES; pass++) {
+            buildRows();
+        }
+        long formatNs = (System.nanoTime() - start) / (SCROLL_PASSES * ROWS);
+
+        Log.i(LOG_TAG, "Forecast row: bind " + bindNs + " ns, format (now on the loader thread) "
+                + formatNs + " ns");
+    }
+
+    private List<ForecastRow> buildRows() {
+        return buildRows(System.currentTimeMillis(), 0, ROWS, 21.5);
+    }
+
+    /**
+     * @return {@code count} daily rows, the first one {@code firstDay} days from {@code now}.
+     */
+    private List<ForecastRow> buildRows(long now, int firstDay, int count, double high) {
+        MatrixCursor cursor = new MatrixCursor(ForecastFragment.FORECAST_COLUMNS);
+        for (int day = firstDay; day < firstDay + count; day++) {
+            int weatherId = WEATHER_IDS[(day + WEATHER_IDS.length) % WEATHER_IDS.length];
+            cursor.addRow(new Object[]{day, now + day * DateUtils.DAY_IN_MILLIS, "Clear", high, 11.2,
+                    "94043", weatherId, 37.4, -122.1});
+        }
+
+        List<ForecastRow> rows = new ArrayList<>(count);
+        while (cursor.moveToNext()) {
+            rows.add(new ForecastRow(mContext, cursor, cursor.getPosition()));
+        }
+        cursor.close();
+        return rows;
+    }
+}
@@ -0,0 +1,116 @@
+package com.example.android.sunshine.app;
+
+import android.support.v7.widget.RecyclerView;
+import android.test.AndroidTestCase;
+import android.view.View;
+import android.view.ViewGroup;
+import android.widget.AbsListView;
+
+public class TestItemChoiceManager extends AndroidTestCase {
+
+    /**
+     * Items whose ids are {@code firstId}, {@code firstId + 1}, ...
+     */
+    private static class IdAdapter extends RecyclerView.Adapter<RecyclerView.ViewHolder>
+            implements ItemChoiceManager.PositionLookup {
+        private final ItemIdIndex mIndex = new ItemIdIndex();
+        private long mFirstId;
+        private int mCount;
+
+        IdAdapter() {
+            setHasStableIds(true);
+        }
+
+        void setItems(long firstId, int count) {
+            mFirstId = firstId;
+            mCount = count;
+            mIndex.reset(count);
+            for (int position = 0; position < count; position++) {
+                mIndex.put(firstId + position, position);
+            }
+        }
+
+        @Override
+        public RecyclerView.ViewHolder onCreateViewHolder(ViewGroup parent, int viewType) {
+            return new RecyclerView.ViewHolder(new View(parent.getContext())) {
+            };
+        }
+
+        @Override
+        public void onBindViewHolder(RecyclerView.ViewHolder holder, int position) {
+        }
+
+        @Override
+        public int getItemCount() {
+            return mCount;
+        }
+
+        @Override
+        public long getItemId(int position) {
+            return mFirstId + position;
+        }
+
+        @Override
+        public int getPositionForItemId(long id) {
+            return mIndex.get(id);
+        }
+    }
+
+    private IdAdapter mAdapter;
+    private ItemChoiceManager mICM;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mAdapter = new IdAdapter();
+        mAdapter.setItems(1000, 500);
+        mICM = new ItemChoiceManager(mAdapter);
+        mICM.setChoiceMode(AbsListView.CHOICE_MODE_SINGLE);
+        select(10);
+    }
+
+    public void testSelectionFollowsItemFarAway() {
+        // Item 1010 moves from position 10 to 310, well past the old search distance.
+        mAdapter.setItems(700, 500);
+        mAdapter.notifyDataSetChanged();
+
+        assertEquals(310, mICM.getSelectedItemPosition());
+        assertTrue(mICM.isItemChecked(310));
+        assertFalse(mICM.isItemChecked(10));
+    }
+
+    public void testSelectionFollowsRangeNotifications() {
+        mAdapter.setItems(995, 505);
+        mAdapter.notifyItemRangeInserted(0, 5);
+        assertEquals(15, mICM.getSelectedItemPosition());
+    }
+
+    public void testSelectionDroppedWithItem() {
+        mAdapter.setItems(2000, 500);
+        mAdapter.notifyDataSetChanged();
+        assertEquals(RecyclerView.NO_POSITION, mICM.getSelectedItemPosition());
+    }
+
+    public void testIndex() {
+        ItemIdIndex index = new ItemIdIndex();
+        long day = 24L * 60 * 60 * 1000;
+        for (int position = 0; position < 1000; position++) {
+            index.put(1419033600000L + position * day, position);
+        }
+        assertEquals(1000, index.size());
+        for (int position = 0; position < 1000; position++) {
+            assertEquals(position, index.get(1419033600000L + position * day));
+        }
+        assertEquals(RecyclerView.NO_POSITION, index.get(42));
+
+        index.reset(4);
+        assertEquals(0, index.size());
+        assertEquals(RecyclerView.NO_POSITION, index.get(1419033600000L));
+    }
+
+    private void select(int position) {
+        mICM.clearSelections();
+        mICM.mCheckStates.put(position, true);
+        mICM.mCheckedIdStates.put(mAdapter.getItemId(position), position);
+    }
+}
@@ -0,0 +1,85 @@
+package com.example.android.sunshine.app;
+
+import android.content.SharedPreferences;
+import android.preference.PreferenceManager;
+import android.test.AndroidTestCase;
+import android.util.Log;
+
+import com.example.android.sunshine.app.utils.PollingCheck;
+
+public class TestSettingsSnapshot extends AndroidTestCase {
+    private static final String LOG_TAG = TestSettingsSnapshot.class.getSimpleName();
+
+    private static final int ROWS = 14;
+    private static final int SCROLL_PASSES = 100;
+
+    private SharedPreferences mPrefs;
+    private String mUnitsKey;
+    private String mSavedUnits;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mPrefs = PreferenceManager.getDefaultSharedPreferences(mContext);
+        mUnitsKey = mContext.getString(R.string.pref_units_key);
+        mSavedUnits = mPrefs.getString(mUnitsKey, null);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (mSavedUnits == null) {
+            mPrefs.edit().remove(mUnitsKey).commit();
+        } else {
+            mPrefs.edit().putString(mUnitsKey, mSavedUnits).commit();
+        }
+        super.tearDown();
+    }
+
+    public void testFollowsPreferences() {
+        SettingsSnapshot.get(mContext);
+
+        mPrefs.edit().putString(mUnitsKey, mContext.getString(R.string.pref_units_imperial)).commit();
+        // Preference listeners are notified on the main thread.
+        new PollingCheck() {
+            @Override
+            protected boolean check() {
+                return !Utility.isMetric(mContext);
+            }
+        }.run();
+
+        mPrefs.edit().putString(mUnitsKey, mContext.getString(R.string.pref_units_metric)).commit();
+        new PollingCheck() {
+            @Override
+            protected boolean check() {
+                return Utility.isMetric(mContext);
+            }
+        }.run();
+        assertNotNull(SettingsSnapshot.get(mContext).location);
+    }
+
+    /**
+     * Binds the settings-dependent parts of forecast rows as a scroll does and reports how many
+     * preference lookups the snapshot served without touching preferences.
+     */
+    public void testScrollLookups() {
+        SettingsSnapshot.get(mContext);
+        int buildsBefore = SettingsSnapshot.getBuildCount();
+
+        int lookups = 0;
+        for (int pass = 0; pass < SCROLL_PASSES; pass++) {
+            for (int row = 0; row < ROWS; row++) {
+                // The same calls ForecastAdapter.onBindViewHolder makes.
+                Utility.usingLocalGraphics(mContext);
+                Utility.getArtUrlForWeatherCondition(mContext, 800);
+                Utility.formatTemperature(mContext, 20);
+                Utility.formatTemperature(mContext, 10);
+                lookups += 4;
+            }
+        }
+
+        int builds = SettingsSnapshot.getBuildCount() - buildsBefore;
+        assertEquals(0, builds);
+        Log.i(LOG_TAG, "Scroll of " + SCROLL_PASSES * ROWS + " rows: " + lookups
+                + " settings lookups, " + builds + " preference reads");
+    }
+}
@@ -0,0 +1,137 @@
+package com.example.android.sunshine.app;
+
+import android.content.SharedPreferences;
+import android.preference.PreferenceManager;
+import android.test.AndroidTestCase;
+import android.util.Log;
+
+import com.example.android.sunshine.app.utils.PollingCheck;
+import com.example.android.sunshine.common.WeatherCondition;
+
+import java.util.Locale;
+
+public class TestWeatherConditionTable extends AndroidTestCase {
+    private static final String LOG_TAG = TestWeatherConditionTable.class.getSimpleName();
+
+    private static final String TEST_ART_PACK = "http://example.com/art/%s.png";
+    private static final int BENCHMARK_ITERATIONS = 20000;
+
+    private SharedPreferences mPrefs;
+    private String mArtPackKey;
+    private String mSavedArtPack;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mPrefs = PreferenceManager.getDefaultSharedPreferences(mContext);
+        mArtPackKey = mContext.getString(R.string.pref_art_pack_key);
+        mSavedArtPack = mPrefs.getString(mArtPackKey, null);
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        if (mSavedArtPack == null) {
+            mPrefs.edit().remove(mArtPackKey).commit();
+        } else {
+            mPrefs.edit().putString(mArtPackKey, mSavedArtPack).commit();
+        }
+        super.tearDown();
+    }
+
+    public void testResources() {
+        assertEquals(R.drawable.ic_storm, Utility.getIconResourceForWeatherCondition(211));
+        assertEquals(R.drawable.art_snow, Utility.getArtResourceForWeatherCondition(511));
+        assertEquals(R.drawable.art_fog, Utility.getArtResourceForWeatherCondition(761));
+        assertEquals(R.drawable.art_storm, Utility.getArtResourceForWeatherCondition(781));
+        assertEquals(R.drawable.ic_cloudy, Utility.getIconResourceForWeatherCondition(804));
+        assertEquals(-1, Utility.getArtResourceForWeatherCondition(771));
+        assertEquals(-1, Utility.getIconResourceForWeatherCondition(-1));
+        assertEquals(-1, Utility.getIconResourceForWeatherCondition(10000));
+        assertNull(Utility.getImageUrlForWeatherCondition(905));
+        assertTrue(Utility.getImageUrlForWeatherCondition(781).contains("Raised_dust"));
+        assertTrue(Utility.getImageUrlForWeatherCondition(761).contains("fog"));
+    }
+
+    public void testDescriptions() {
+        assertEquals(mContext.getString(R.string.condition_2xx),
+                Utility.getStringForWeatherCondition(mContext, 232));
+        assertEquals(mContext.getString(R.string.condition_962),
+                Utility.getStringForWeatherCondition(mContext, 962));
+        assertEquals(mContext.getString(R.string.condition_unknown, 700),
+                Utility.getStringForWeatherCondition(mContext, 700));
+        assertEquals(mContext.getString(R.string.condition_unknown, 1200),
+                Utility.getStringForWeatherCondition(mContext, 1200));
+    }
+
+    public void testArtUrlFollowsArtPack() {
+        mPrefs.edit().putString(mArtPackKey, TEST_ART_PACK).commit();
+        // Preference listeners are notified on the main thread.
+        new PollingCheck() {
+            @Override
+            protected boolean check() {
+                return !Utility.usingLocalGraphics(mContext);
+            }
+        }.run();
+        assertEquals("http://example.com/art/light_rain.png",
+                Utility.getArtUrlForWeatherCondition(mContext, 301));
+        assertNull(Utility.getArtUrlForWeatherCondition(mContext, 905));
+
+        mPrefs.edit().putString(mArtPackKey, mContext.getString(R.string.pref_art_pack_sunshine)).commit();
+        new PollingCheck() {
+            @Override
+            protected boolean check() {
+                return Utility.usingLocalGraphics(mContext);
+            }
+        }.run();
+        assertEquals(String.format(Locale.US, mContext.getString(R.string.pref_art_pack_sunshine), "clear"),
+                Utility.getArtUrlForWeatherCondition(mContext, 800));
+    }
+
+    /**
+     * Compares table lookups of the art URL against reading the art pack and formatting the URL on
+     * every call, as the lookup used to.
+     */
+    public void testBenchmark() {
+        int[] weatherIds = {211, 301, 501, 511, 601, 741, 781, 800, 801, 804};
+
+        // Warm up both paths.
+        lookUpWithTable(weatherIds, 1000);
+        lookUpPerCall(weatherIds, 1000);
+
+        long start = System.nanoTime();
+        int tableChecksum = lookUpWithTable(weatherIds, BENCHMARK_ITERATIONS);
+        long tableNs = System.nanoTime() - start;
+
+        start = System.nanoTime();
+        int perCallChecksum = lookUpPerCall(weatherIds, BENCHMARK_ITERATIONS);
+        long perCallNs = System.nanoTime() - start;
+
+        assertEquals(perCallChecksum, tableChecksum);
+        long lookups = (long) BENCHMARK_ITERATIONS * weatherIds.length;
+        Log.i(LOG_TAG, "Art URL lookup: table " + tableNs / lookups + " ns, per call "
+                + perCallNs / lookups + " ns");
+    }
+
+    private int lookUpWithTable(int[] weatherIds, int iterations) {
+        int checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            for (int weatherId : weatherIds) {
+                checksum += Utility.getArtUrlForWeatherCondition(mContext, weatherId).length();
+            }
+        }
+        return checksum;
+    }
+
+    private int lookUpPerCall(int[] weatherIds, int iterations) {
+        int checksum = 0;
+        for (int i = 0; i < iterations; i++) {
+            for (int weatherId : weatherIds) {
+                String formatArtUrl = mPrefs.getString(mArtPackKey,
+                        mContext.getString(R.string.pref_art_pack_sunshine));
+                String artName = WeatherCondition.forWeatherId(weatherId).getArtName();
+                checksum += String.format(Locale.US, formatArtUrl, artName).length();
+            }
+        }
+        return checksum;
+    }
+}
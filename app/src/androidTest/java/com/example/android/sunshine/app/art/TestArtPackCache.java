@@ -0,0 +1,69 @@
+package com.example.android.sunshine.app.art;
+
+import android.net.Uri;
+import android.test.AndroidTestCase;
+
+import com.example.android.sunshine.app.R;
+import com.example.android.sunshine.common.WeatherCondition;
+
+import java.io.File;
+
+public class TestArtPackCache extends AndroidTestCase {
+    private static final String TEST_ART_PACK = "https://example.com/test/%s.png";
+
+    private File mDirectory;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mDirectory = ArtPackCache.getDirectory(mContext, TEST_ART_PACK);
+        deleteDirectory();
+        ArtPackCache.invalidate();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        deleteDirectory();
+        ArtPackCache.invalidate();
+        super.tearDown();
+    }
+
+    public void testOnlyCompletePacksAreUsed() throws Exception {
+        assertFalse(ArtPackCache.isCached(mContext, TEST_ART_PACK));
+
+        assertTrue(mDirectory.mkdirs());
+        assertTrue(ArtPackCache.getCompleteMarker(mDirectory).createNewFile());
+        // The missing pack was remembered until the prefetch invalidates the cache.
+        assertFalse(ArtPackCache.isCached(mContext, TEST_ART_PACK));
+        ArtPackCache.invalidate();
+        assertTrue(ArtPackCache.isCached(mContext, TEST_ART_PACK));
+    }
+
+    public void testPacksAreVersionedApart() {
+        File other = ArtPackCache.getDirectory(mContext,
+                mContext.getString(R.string.pref_art_pack_sunshine));
+        assertFalse(mDirectory.equals(other));
+        assertEquals(ArtPackCache.getRoot(mContext), mDirectory.getParentFile());
+
+        File icon = ArtPackCache.getFile(mDirectory, WeatherCondition.CLEAR, ArtPackCache.SIZE_ICON);
+        File art = ArtPackCache.getFile(mDirectory, WeatherCondition.CLEAR, ArtPackCache.SIZE_ART);
+        assertFalse(icon.equals(art));
+        assertEquals("file", Uri.fromFile(icon).getScheme());
+    }
+
+    public void testPixelSizes() {
+        for (int size = 0; size < ArtPackCache.SIZE_COUNT; size++) {
+            assertTrue(ArtPackCache.getPixelSize(mContext.getResources(), size) > 0);
+        }
+    }
+
+    private void deleteDirectory() {
+        File[] files = mDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        mDirectory.delete();
+    }
+}
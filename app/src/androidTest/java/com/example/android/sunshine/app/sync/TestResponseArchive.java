@@ -0,0 +1,84 @@
+package com.example.android.sunshine.app.sync;
+
+import android.test.AndroidTestCase;
+
+import com.example.android.sunshine.app.data.WeatherContract;
+
+import java.io.File;
+import java.io.IOException;
+
+public class TestResponseArchive extends AndroidTestCase {
+
+    private static final String TEST_LOCATION = "99705";
+
+    private static final String TEST_RESPONSE = "{\"city\":{\"id\":5861897,\"name\":\"Fairbanks\","
+            + "\"coord\":{\"lon\":-147.716,\"lat\":64.8378},\"country\":\"US\"},\"cod\":\"200\","
+            + "\"cnt\":1,\"list\":[{\"dt\":1419033600,\"temp\":{\"day\":-10.56,\"min\":-16.15,"
+            + "\"max\":-10.56},\"pressure\":1001.7,\"humidity\":83,\"weather\":[{\"id\":600,"
+            + "\"main\":\"Snow\",\"description\":\"light snow\"}],\"speed\":1.1,\"deg\":45}]}";
+
+    private File mDirectory;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mDirectory = new File(mContext.getCacheDir(), "test-owm-archive");
+        deleteDirectory();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        deleteDirectory();
+        mContext.getContentResolver().delete(WeatherContract.WeatherEntry.CONTENT_URI, null, null);
+        mContext.getContentResolver().delete(WeatherContract.LocationEntry.CONTENT_URI, null, null);
+        super.tearDown();
+    }
+
+    public void testCaptureRoundTrip() throws IOException {
+        ResponseArchive archive = new ResponseArchive(mDirectory, 1024 * 1024);
+        File capture = archive.capture("http://example.com/forecast", TEST_LOCATION, 200, null,
+                12, 34, TEST_RESPONSE);
+
+        assertNotNull("Error: Response was not captured", capture);
+        assertEquals(TEST_RESPONSE, ResponseArchive.readBody(capture));
+        assertEquals(TEST_LOCATION, ResponseArchive.readHeader(capture, ResponseArchive.HEADER_LOCATION));
+        assertEquals("34", ResponseArchive.readHeader(capture, ResponseArchive.HEADER_READ_MS));
+    }
+
+    public void testArchiveIsSizeCapped() throws InterruptedException {
+        ResponseArchive archive = new ResponseArchive(mDirectory, TEST_RESPONSE.length() * 2);
+        for (int i = 0; i < 4; i++) {
+            assertNotNull(archive.capture("http://example.com/forecast", TEST_LOCATION, 200, null,
+                    0, 0, TEST_RESPONSE));
+            // Capture files are named after their timestamp.
+            Thread.sleep(2);
+        }
+
+        long totalBytes = 0;
+        for (File capture : archive.listCaptures()) {
+            totalBytes += capture.length();
+        }
+        assertTrue("Error: Archive exceeds its size cap", totalBytes <= TEST_RESPONSE.length() * 2);
+        assertTrue("Error: Most recent capture was dropped", archive.listCaptures().length > 0);
+    }
+
+    public void testReplay() {
+        ResponseArchive archive = new ResponseArchive(mDirectory, 1024 * 1024);
+        archive.capture("http://example.com/forecast", TEST_LOCATION, 200, null, 0, 0, TEST_RESPONSE);
+
+        ResponseReplayer.Report report = new ResponseReplayer(mContext, archive).replay(10);
+
+        assertEquals(10, report.syncs);
+        assertTrue(report.getAllocatedBytesPerSync() > 0);
+    }
+
+    private void deleteDirectory() {
+        File[] files = mDirectory.listFiles();
+        if (files != null) {
+            for (File file : files) {
+                file.delete();
+            }
+        }
+        mDirectory.delete();
+    }
+}
@@ -0,0 +1,54 @@
+package com.example.android.sunshine.app.widget;
+
+import android.graphics.Bitmap;
+import android.net.Uri;
+import android.test.AndroidTestCase;
+
+import com.example.android.sunshine.app.R;
+
+import java.io.File;
+import java.io.FileOutputStream;
+
+public class TestWidgetArtCache extends AndroidTestCase {
+    private static final int SOURCE_SIZE = 512;
+
+    private File mFile;
+    private String mUrl;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        // A full-size image, like the art packs serve.
+        mFile = new File(mContext.getCacheDir(), "test_widget_art.png");
+        Bitmap source = Bitmap.createBitmap(SOURCE_SIZE, SOURCE_SIZE, Bitmap.Config.ARGB_8888);
+        FileOutputStream out = new FileOutputStream(mFile);
+        source.compress(Bitmap.CompressFormat.PNG, 100, out);
+        out.close();
+        mUrl = Uri.fromFile(mFile).toString();
+        WidgetArtCache.clear();
+    }
+
+    @Override
+    protected void tearDown() throws Exception {
+        WidgetArtCache.clear();
+        mFile.delete();
+        super.tearDown();
+    }
+
+    public void testBitmapsAreScaledAndShared() {
+        int iconSize = mContext.getResources().getDimensionPixelSize(R.dimen.list_icon);
+        Bitmap icon = WidgetArtCache.getBitmap(mContext, mUrl, iconSize);
+        assertNotNull(icon);
+        assertTrue(icon.getWidth() <= iconSize && icon.getHeight() <= iconSize);
+        assertTrue(WidgetArtCache.getByteCount(icon) < SOURCE_SIZE * SOURCE_SIZE * 4);
+
+        // Every row showing the same condition shares the bitmap.
+        assertSame(icon, WidgetArtCache.getBitmap(mContext, mUrl, iconSize));
+        assertNotSame(icon, WidgetArtCache.getBitmap(mContext, mUrl, iconSize / 2));
+    }
+
+    public void testMissingArt() {
+        assertNull(WidgetArtCache.getBitmap(mContext,
+                Uri.fromFile(new File(mFile.getPath() + ".missing")).toString(), 10));
+    }
+}
@@ -0,0 +1,225 @@
+package com.example.android.sunshine.app;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.text.format.Time;
+import android.util.SparseArray;
+
+import java.text.SimpleDateFormat;
+import java.util.Calendar;
+import java.util.Locale;
+import java.util.TimeZone;
+
+/**
+ * Formats the day labels shown for forecast rows ("Today, June 8", "Tomorrow", "Wednesday",
+ * "Mon Jun 8"). Labels only depend on the day, the locale and which day is today, so they are
+ * memoized per julian day and dropped when the day rolls over or the time zone or locale changes.
+ */
+public class DayLabelFormatter {
+    private static final int KIND_FRIENDLY = 0;
+    private static final int KIND_FRIENDLY_LONG_TODAY = 1;
+    private static final int KIND_FULL_FRIENDLY = 2;
+    private static final int KIND_DAY_NAME = 3;
+    private static final int KIND_MONTH_DAY = 4;
+    private static final int KIND_COUNT = 5;
+
+    // Rows only span a few weeks; this just keeps a long-lived process from growing unbounded.
+    private static final int sMaxLabelsPerKind = 128;
+
+    private static DayLabelFormatter sInstance;
+    private static BroadcastReceiver sTimeZoneReceiver;
+
+    private final Context mContext;
+    private final Locale mLocale;
+    private final TimeZone mTimeZone;
+    private final SimpleDateFormat mDayNameFormat;
+    private final SimpleDateFormat mShortenedDateFormat;
+    private final SimpleDateFormat mMonthDayFormat;
+    private final String mToday;
+    private final String mTomorrow;
+    private final String mFullFriendlyFormat;
+
+    @SuppressWarnings("unchecked")
+    private final SparseArray<String>[] mLabels = new SparseArray[KIND_COUNT];
+
+    private long mStartOfToday;
+    private long mStartOfTomorrow;
+    private int mGmtOffset;
+    private int mCurrentJulianDay;
+
+    private DayLabelFormatter(Context context, Locale locale, TimeZone timeZone) {
+        mContext = context;
+        mLocale = locale;
+        mTimeZone = timeZone;
+        mDayNameFormat = newFormat("EEEE");
+        mShortenedDateFormat = newFormat("EEE MMM dd");
+        mMonthDayFormat = newFormat("MMMM dd");
+        mToday = context.getString(R.string.today);
+        mTomorrow = context.getString(R.string.tomorrow);
+        mFullFriendlyFormat = context.getString(R.string.format_full_friendly_date);
+        for (int kind = 0; kind < KIND_COUNT; kind++) {
+            mLabels[kind] = new SparseArray<>();
+        }
+        checkToday(System.currentTimeMillis());
+    }
+
+    /**
+     * @return the formatter for the current locale and time zone.
+     */
+    public static synchronized DayLabelFormatter get(Context context) {
+        Locale locale = context.getResources().getConfiguration().locale;
+        if (sInstance == null || !sInstance.mLocale.equals(locale)) {
+            Context appContext = context.getApplicationContext();
+            registerTimeZoneReceiver(appContext);
+            sInstance = new DayLabelFormatter(appContext, locale, TimeZone.getDefault());
+        }
+        return sInstance;
+    }
+
+    private static void registerTimeZoneReceiver(Context context) {
+        if (sTimeZoneReceiver != null) {
+            return;
+        }
+        sTimeZoneReceiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                synchronized (DayLabelFormatter.class) {
+                    sInstance = null;
+                }
+            }
+        };
+        IntentFilter filter = new IntentFilter(Intent.ACTION_TIMEZONE_CHANGED);
+        filter.addAction(Intent.ACTION_TIME_CHANGED);
+        filter.addAction(Intent.ACTION_LOCALE_CHANGED);
+        context.registerReceiver(sTimeZoneReceiver, filter);
+    }
+
+    /**
+     * @see Utility#getFriendlyDayString(Context, long, boolean)
+     */
+    public synchronized String getFriendlyDayString(long dateInMillis, boolean displayLongToday) {
+        checkToday(System.currentTimeMillis());
+        int julianDay = getJulianDay(dateInMillis);
+        int kind = displayLongToday ? KIND_FRIENDLY_LONG_TODAY : KIND_FRIENDLY;
+        String label = mLabels[kind].get(julianDay);
+        if (label == null) {
+            if (displayLongToday && julianDay == mCurrentJulianDay) {
+                // For today: "Today, June 8"
+                label = String.format(mFullFriendlyFormat, mToday, monthDay(julianDay, dateInMillis));
+            } else if (julianDay < mCurrentJulianDay + 7) {
+                // For tomorrow and the next 5 days: "Tomorrow", "Wednesday"
+                label = dayName(julianDay, dateInMillis);
+            } else {
+                // For all days after that: "Mon Jun 8"
+                label = mShortenedDateFormat.format(dateInMillis);
+            }
+            put(kind, julianDay, label);
+        }
+        return label;
+    }
+
+    /**
+     * @see Utility#getFullFriendlyDayString(Context, long)
+     */
+    public synchronized String getFullFriendlyDayString(long dateInMillis) {
+        checkToday(System.currentTimeMillis());
+        int julianDay = getJulianDay(dateInMillis);
+        String label = mLabels[KIND_FULL_FRIENDLY].get(julianDay);
+        if (label == null) {
+            label = String.format(mFullFriendlyFormat, dayName(julianDay, dateInMillis),
+                    monthDay(julianDay, dateInMillis));
+            put(KIND_FULL_FRIENDLY, julianDay, label);
+        }
+        return label;
+    }
+
+    /**
+     * @see Utility#getDayName(Context, long)
+     */
+    public synchronized String getDayName(long dateInMillis) {
+        checkToday(System.currentTimeMillis());
+        return dayName(getJulianDay(dateInMillis), dateInMillis);
+    }
+
+    /**
+     * @see Utility#getFormattedMonthDay(Context, long)
+     */
+    public synchronized String getFormattedMonthDay(long dateInMillis) {
+        checkToday(System.currentTimeMillis());
+        return monthDay(getJulianDay(dateInMillis), dateInMillis);
+    }
+
+    /**
+     * Moves the today anchor and drops every label once {@code now} falls outside the current day.
+     *
+     * @return true if the labels were dropped.
+     */
+    synchronized boolean checkToday(long now) {
+        if (now >= mStartOfToday && now < mStartOfTomorrow) {
+            return false;
+        }
+        Calendar calendar = Calendar.getInstance(mTimeZone, mLocale);
+        calendar.setTimeInMillis(now);
+        calendar.set(Calendar.HOUR_OF_DAY, 0);
+        calendar.set(Calendar.MINUTE, 0);
+        calendar.set(Calendar.SECOND, 0);
+        calendar.set(Calendar.MILLISECOND, 0);
+        mStartOfToday = calendar.getTimeInMillis();
+        calendar.add(Calendar.DAY_OF_MONTH, 1);
+        mStartOfTomorrow = calendar.getTimeInMillis();
+
+        mGmtOffset = mTimeZone.getOffset(now) / 1000;
+        mCurrentJulianDay = Time.getJulianDay(now, mGmtOffset);
+        for (int kind = 0; kind < KIND_COUNT; kind++) {
+            mLabels[kind].clear();
+        }
+        return true;
+    }
+
+    int getCurrentJulianDay() {
+        return mCurrentJulianDay;
+    }
+
+    private int getJulianDay(long dateInMillis) {
+        return Time.getJulianDay(dateInMillis, mGmtOffset);
+    }
+
+    private String dayName(int julianDay, long dateInMillis) {
+        if (julianDay == mCurrentJulianDay) {
+            return mToday;
+        } else if (julianDay == mCurrentJulianDay + 1) {
+            return mTomorrow;
+        }
+        String label = mLabels[KIND_DAY_NAME].get(julianDay);
+        if (label == null) {
+            // Otherwise, the format is just the day of the week (e.g "Wednesday").
+            label = mDayNameFormat.format(dateInMillis);
+            put(KIND_DAY_NAME, julianDay, label);
+        }
+        return label;
+    }
+
+    private String monthDay(int julianDay, long dateInMillis) {
+        String label = mLabels[KIND_MONTH_DAY].get(julianDay);
+        if (label == null) {
+            label = mMonthDayFormat.format(dateInMillis);
+            put(KIND_MONTH_DAY, julianDay, label);
+        }
+        return label;
+    }
+
+    private void put(int kind, int julianDay, String label) {
+        if (mLabels[kind].size() >= sMaxLabelsPerKind) {
+            mLabels[kind].clear();
+        }
+        mLabels[kind].put(julianDay, label);
+    }
+
+    private SimpleDateFormat newFormat(String pattern) {
+        SimpleDateFormat format = new SimpleDateFormat(pattern, mLocale);
+        format.setTimeZone(mTimeZone);
+        return format;
+    }
+}
@@ -37,6 +37,7 @@ import android.widget.ImageView;
 import android.widget.TextView;
 
 import com.bumptech.glide.Glide;
+import com.example.android.sunshine.app.art.ArtPackCache;
 import com.example.android.sunshine.app.data.WeatherContract;
 import com.example.android.sunshine.app.data.WeatherContract.WeatherEntry;
 
@@ -204,7 +205,7 @@ public class DetailFragment extends Fragment implements LoaderManager.LoaderCall
             } else {
                 // Use weather art image
                 Glide.with(this)
-                        .load(Utility.getArtUrlForWeatherCondition(getActivity(), weatherId))
+                        .load(ArtPackCache.getArtUrl(getActivity(), weatherId, ArtPackCache.SIZE_ART))
                         .error(Utility.getArtResourceForWeatherCondition(weatherId))
                         .crossFade()
                         .into(mIconView);
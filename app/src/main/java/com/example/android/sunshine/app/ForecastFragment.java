@@ -20,7 +20,6 @@ import android.app.Activity;
 import android.content.Intent;
 import android.content.SharedPreferences;
 import android.content.res.TypedArray;
-import android.database.Cursor;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
@@ -28,7 +27,6 @@ import android.preference.PreferenceManager;
 import android.support.design.widget.AppBarLayout;
 import android.support.v4.app.Fragment;
 import android.support.v4.app.LoaderManager;
-import android.support.v4.content.CursorLoader;
 import android.support.v4.content.Loader;
 import android.support.v4.view.ViewCompat;
 import android.support.v7.widget.LinearLayoutManager;
@@ -48,10 +46,12 @@ import android.widget.TextView;
 import com.example.android.sunshine.app.data.WeatherContract;
 import com.example.android.sunshine.app.sync.SunshineSyncAdapter;
 
+import java.util.List;
+
 /**
  * Encapsulates fetching the forecast and displaying it as a {@link android.support.v7.widget.RecyclerView} layout.
  */
-public class ForecastFragment extends Fragment implements LoaderManager.LoaderCallbacks<Cursor>, SharedPreferences.OnSharedPreferenceChangeListener {
+public class ForecastFragment extends Fragment implements LoaderManager.LoaderCallbacks<ForecastUpdate>, SharedPreferences.OnSharedPreferenceChangeListener {
     public static final String LOG_TAG = ForecastFragment.class.getSimpleName();
     private ForecastAdapter mForecastAdapter;
     private RecyclerView mRecyclerView;
@@ -65,7 +65,7 @@ public class ForecastFragment extends Fragment implements LoaderManager.LoaderCa
     private static final int FORECAST_LOADER = 0;
     // For the forecast view we're showing only a small subset of the stored data.
     // Specify the columns we need.
-    private static final String[] FORECAST_COLUMNS = {
+    static final String[] FORECAST_COLUMNS = {
             // In this case the id needs to be fully qualified with a table name, since
             // the content provider joins the location & weather tables in the background
             // (both have an _id column)
@@ -277,15 +277,14 @@ public class ForecastFragment extends Fragment implements LoaderManager.LoaderCa
             return;
         }
 
-        Cursor c = mForecastAdapter.getCursor();
-        if (null == c || c.getCount() == 0) {
-            Log.d(LOG_TAG, "Cursor data is empty.");
+        List<ForecastRow> rows = mForecastAdapter.getRows();
+        if (null == rows || rows.isEmpty()) {
+            Log.d(LOG_TAG, "Forecast data is empty.");
             return;
         }
 
-        c.moveToPosition(0);
-        String posLat = c.getString(COL_COORD_LAT);
-        String posLong = c.getString(COL_COORD_LONG);
+        String posLat = rows.get(0).coordLat;
+        String posLong = rows.get(0).coordLong;
         Uri geoLocation = Uri.parse("geo:" + posLat + "," + posLong);
 
         Intent intent = new Intent(Intent.ACTION_VIEW);
@@ -307,7 +306,7 @@ public class ForecastFragment extends Fragment implements LoaderManager.LoaderCa
 
 
     @Override
-    public Loader<Cursor> onCreateLoader(int i, Bundle bundle) {
+    public Loader<ForecastUpdate> onCreateLoader(int i, Bundle bundle) {
         // This is called when a new Loader needs to be created.  This
         // fragment only uses one loader, so we don't care about checking the id.
 
@@ -321,19 +320,17 @@ public class ForecastFragment extends Fragment implements LoaderManager.LoaderCa
         Uri weatherForLocationUri = WeatherContract.WeatherEntry.buildWeatherLocationWithStartDate(
                 locationSetting, System.currentTimeMillis());
 
-        return new CursorLoader(getActivity(),
+        return new ForecastLoader(getActivity(),
                 weatherForLocationUri,
                 FORECAST_COLUMNS,
-                null,
-                null,
                 sortOrder);
     }
 
     @Override
-    public void onLoadFinished(Loader<Cursor> loader, Cursor data) {
-        mForecastAdapter.swapCursor(data);
+    public void onLoadFinished(Loader<ForecastUpdate> loader, ForecastUpdate update) {
+        mForecastAdapter.applyUpdate(update);
         updateEmptyView();
-        if (data.getCount() == 0) {
+        if (update.rows.isEmpty()) {
             getActivity().supportStartPostponedEnterTransition();
         } else {
             mRecyclerView.getViewTreeObserver().addOnPreDrawListener(new ViewTreeObserver.OnPreDrawListener() {
@@ -346,12 +343,10 @@ public class ForecastFragment extends Fragment implements LoaderManager.LoaderCa
                         int position = mForecastAdapter.getSelectedItemPosition();
                         if (position == RecyclerView.NO_POSITION &&
                                 -1 != mInitialSelectedDate) {
-                            Cursor data = mForecastAdapter.getCursor();
-                            int count = data.getCount();
-                            int dateColumn = data.getColumnIndex(WeatherContract.WeatherEntry.COLUMN_DATE);
+                            List<ForecastRow> rows = mForecastAdapter.getRows();
+                            int count = rows.size();
                             for (int i = 0; i < count; i++) {
-                                data.moveToPosition(i);
-                                if (data.getLong(dateColumn) == mInitialSelectedDate) {
+                                if (rows.get(i).date == mInitialSelectedDate) {
                                     position = i;
                                     break;
                                 }
@@ -387,8 +382,8 @@ public class ForecastFragment extends Fragment implements LoaderManager.LoaderCa
     }
 
     @Override
-    public void onLoaderReset(Loader<Cursor> loader) {
-        mForecastAdapter.swapCursor(null);
+    public void onLoaderReset(Loader<ForecastUpdate> loader) {
+        mForecastAdapter.swapRows(null);
     }
 
     public void setUseTodayLayout(boolean useTodayLayout) {
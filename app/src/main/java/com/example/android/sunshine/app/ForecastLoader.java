@@ -0,0 +1,116 @@
+package com.example.android.sunshine.app;
+
+import android.content.BroadcastReceiver;
+import android.content.Context;
+import android.content.Intent;
+import android.content.IntentFilter;
+import android.database.Cursor;
+import android.net.Uri;
+import android.support.v4.content.AsyncTaskLoader;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Queries the forecast like a CursorLoader would, but formats every row into a
+ * {@link ForecastRow} on the loader thread and closes the cursor, so the list only binds strings
+ * on the UI thread. Reloads whenever the queried weather changes, and diffs each load against
+ * the previous one on the loader thread as well. Also reloads when the day changes, since rows are
+ * labelled relative to today.
+ */
+public class ForecastLoader extends AsyncTaskLoader<ForecastUpdate> {
+    private final ForceLoadContentObserver mObserver = new ForceLoadContentObserver();
+    private final BroadcastReceiver mDayChangedReceiver = new BroadcastReceiver() {
+        @Override
+        public void onReceive(Context context, Intent intent) {
+            // "Today" and "Tomorrow" now point at other rows.
+            onContentChanged();
+        }
+    };
+    private final Uri mUri;
+    private final String[] mProjection;
+    private final String mSortOrder;
+
+    // Read on the loader thread to diff against.
+    private volatile List<ForecastRow> mRows;
+    private ForecastUpdate mUpdate;
+    private boolean mObserving;
+
+    public ForecastLoader(Context context, Uri uri, String[] projection, String sortOrder) {
+        super(context);
+        mUri = uri;
+        mProjection = projection;
+        mSortOrder = sortOrder;
+    }
+
+    @Override
+    public ForecastUpdate loadInBackground() {
+        return ForecastUpdate.compute(mRows, queryRows());
+    }
+
+    private List<ForecastRow> queryRows() {
+        Cursor cursor = getContext().getContentResolver().query(mUri, mProjection, null, null, mSortOrder);
+        if (cursor == null) {
+            return Collections.emptyList();
+        }
+        try {
+            List<ForecastRow> rows = new ArrayList<>(cursor.getCount());
+            while (cursor.moveToNext()) {
+                rows.add(new ForecastRow(getContext(), cursor, cursor.getPosition()));
+            }
+            return Collections.unmodifiableList(rows);
+        } finally {
+            cursor.close();
+        }
+    }
+
+    @Override
+    public void deliverResult(ForecastUpdate update) {
+        if (isReset()) {
+            return;
+        }
+        mUpdate = update;
+        mRows = update.rows;
+        if (isStarted()) {
+            super.deliverResult(update);
+        }
+    }
+
+    @Override
+    protected void onStartLoading() {
+        if (!mObserving) {
+            // The provider notifies the query uri, or the whole weather table on settings changes.
+            getContext().getContentResolver().registerContentObserver(mUri, true, mObserver);
+            IntentFilter filter = new IntentFilter(Intent.ACTION_DATE_CHANGED);
+            filter.addAction(Intent.ACTION_TIME_CHANGED);
+            filter.addAction(Intent.ACTION_TIMEZONE_CHANGED);
+            getContext().registerReceiver(mDayChangedReceiver, filter);
+            mObserving = true;
+        }
+        if (mUpdate != null) {
+            deliverResult(mUpdate);
+        }
+        if (takeContentChanged() || mUpdate == null) {
+            forceLoad();
+        }
+    }
+
+    @Override
+    protected void onStopLoading() {
+        cancelLoad();
+    }
+
+    @Override
+    protected void onReset() {
+        super.onReset();
+        onStopLoading();
+        if (mObserving) {
+            getContext().getContentResolver().unregisterContentObserver(mObserver);
+            getContext().unregisterReceiver(mDayChangedReceiver);
+            mObserving = false;
+        }
+        mUpdate = null;
+        mRows = null;
+    }
+}
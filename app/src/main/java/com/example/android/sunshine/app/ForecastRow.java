@@ -0,0 +1,102 @@
+package com.example.android.sunshine.app;
+
+import android.content.Context;
+import android.database.Cursor;
+import android.text.TextUtils;
+
+import com.example.android.sunshine.app.art.ArtPackCache;
+
+import java.util.Arrays;
+
+/**
+ * One fully formatted forecast list item, built off the UI thread by {@link ForecastLoader} so
+ * binding a row only assigns these fields to views.
+ */
+public class ForecastRow {
+    public final long date;
+    public final int weatherId;
+    public final String locationSetting;
+    public final String coordLat;
+    public final String coordLong;
+
+    /** Art resource, used by the "today" layout. */
+    public final int artResource;
+    public final int iconResource;
+    /**
+     * Art pack URLs to load for the "today" and list layouts, or null when Sunshine uses its
+     * local graphics.
+     */
+    public final String artUrl;
+    public final String iconUrl;
+    public final String transitionName;
+
+    /** Label for the "today" layout, e.g. "Today, June 8". */
+    public final String longDateLabel;
+    public final String dateLabel;
+    public final String description;
+    public final String descriptionContentDescription;
+    public final String high;
+    public final String highContentDescription;
+    public final String low;
+    public final String lowContentDescription;
+
+    private final int mContentHash;
+
+    /**
+     * Formats the row at the cursor's current position, which holds
+     * {@link ForecastFragment#FORECAST_COLUMNS}.
+     */
+    public ForecastRow(Context context, Cursor cursor, int position) {
+        date = cursor.getLong(ForecastFragment.COL_WEATHER_DATE);
+        weatherId = cursor.getInt(ForecastFragment.COL_WEATHER_CONDITION_ID);
+        locationSetting = cursor.getString(ForecastFragment.COL_LOCATION_SETTING);
+        coordLat = cursor.getString(ForecastFragment.COL_COORD_LAT);
+        coordLong = cursor.getString(ForecastFragment.COL_COORD_LONG);
+
+        artResource = Utility.getArtResourceForWeatherCondition(weatherId);
+        iconResource = Utility.getIconResourceForWeatherCondition(weatherId);
+        if (Utility.usingLocalGraphics(context)) {
+            artUrl = null;
+            iconUrl = null;
+        } else {
+            artUrl = ArtPackCache.getArtUrl(context, weatherId, ArtPackCache.SIZE_ART);
+            iconUrl = ArtPackCache.getArtUrl(context, weatherId, ArtPackCache.SIZE_ICON);
+        }
+        // this enables better animations. even if we lose state due to a device rotation,
+        // the animator can use this to re-find the original view
+        transitionName = "iconView" + date;
+
+        dateLabel = Utility.getFriendlyDayString(context, date, false);
+        // Only the first row can use the "today" layout.
+        longDateLabel = position == 0 ? Utility.getFriendlyDayString(context, date, true) : dateLabel;
+
+        description = Utility.getStringForWeatherCondition(context, weatherId);
+        descriptionContentDescription = context.getString(R.string.a11y_forecast, description);
+
+        high = Utility.formatTemperature(context, cursor.getDouble(ForecastFragment.COL_WEATHER_MAX_TEMP));
+        highContentDescription = context.getString(R.string.a11y_high_temp, high);
+
+        low = Utility.formatTemperature(context, cursor.getDouble(ForecastFragment.COL_WEATHER_MIN_TEMP));
+        lowContentDescription = context.getString(R.string.a11y_low_temp, low);
+
+        mContentHash = Arrays.hashCode(new Object[]{artResource, iconResource, artUrl,
+                iconUrl, longDateLabel, dateLabel, description, high, low});
+    }
+
+    /**
+     * @return true if binding {@code other} would show exactly what this row shows.
+     */
+    public boolean hasSameContent(ForecastRow other) {
+        // The content descriptions are derived from the compared fields.
+        return mContentHash == other.mContentHash
+                && artResource == other.artResource
+                && iconResource == other.iconResource
+                && TextUtils.equals(artUrl, other.artUrl)
+                && TextUtils.equals(iconUrl, other.iconUrl)
+                && TextUtils.equals(longDateLabel, other.longDateLabel)
+                && TextUtils.equals(dateLabel, other.dateLabel)
+                && TextUtils.equals(description, other.description)
+                && TextUtils.equals(high, other.high)
+                && TextUtils.equals(low, other.low);
+    }
+}
@@ -0,0 +1,145 @@
+package com.example.android.sunshine.app;
+
+import android.support.v7.widget.RecyclerView;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * A new forecast list together with the granular changes that turn the previous list into it,
+ * so the adapter only rebinds rows whose content changed. Rows are matched by date, which is
+ * unique and ascending in both lists, and compared by content.
+ */
+public class ForecastUpdate {
+    private static final int OP_INSERT = 0;
+    private static final int OP_REMOVE = 1;
+    private static final int OP_CHANGE = 2;
+
+    /** The list the operations apply to, or null for a full refresh. */
+    public final List<ForecastRow> previousRows;
+    public final List<ForecastRow> rows;
+
+    // Triples of operation, position and count, applied in order.
+    private final int[] mOps;
+    private final int mOpCount;
+
+    private ForecastUpdate(List<ForecastRow> previousRows, List<ForecastRow> rows, int[] ops, int opCount) {
+        this.previousRows = previousRows;
+        this.rows = rows;
+        mOps = ops;
+        mOpCount = opCount;
+    }
+
+    /**
+     * Diffs {@code rows} against {@code previousRows}, in a single pass over both lists.
+     */
+    public static ForecastUpdate compute(List<ForecastRow> previousRows, List<ForecastRow> rows) {
+        if (previousRows == null) {
+            return new ForecastUpdate(null, rows, new int[0], 0);
+        }
+
+        int[] ops = new int[3 * 4];
+        int opCount = 0;
+        int oldIndex = 0;
+        int newIndex = 0;
+        // Position in the list as it is after the operations so far.
+        int position = 0;
+        int oldSize = previousRows.size();
+        int newSize = rows.size();
+        while (oldIndex < oldSize || newIndex < newSize) {
+            int op;
+            if (newIndex == newSize) {
+                op = OP_REMOVE;
+            } else if (oldIndex == oldSize) {
+                op = OP_INSERT;
+            } else {
+                ForecastRow oldRow = previousRows.get(oldIndex);
+                ForecastRow newRow = rows.get(newIndex);
+                if (oldRow.date < newRow.date) {
+                    op = OP_REMOVE;
+                } else if (oldRow.date > newRow.date) {
+                    op = OP_INSERT;
+                } else if (oldRow.hasSameContent(newRow)) {
+                    oldIndex++;
+                    newIndex++;
+                    position++;
+                    continue;
+                } else {
+                    op = OP_CHANGE;
+                }
+            }
+
+            // Extend the previous operation when this one continues its range.
+            int last = 3 * (opCount - 1);
+            if (opCount > 0 && ops[last] == op
+                    && ops[last + 1] + (op == OP_REMOVE ? 0 : ops[last + 2]) == position) {
+                ops[last + 2]++;
+            } else {
+                if (3 * (opCount + 1) > ops.length) {
+                    ops = Arrays.copyOf(ops, ops.length * 2);
+                }
+                ops[3 * opCount] = op;
+                ops[3 * opCount + 1] = position;
+                ops[3 * opCount + 2] = 1;
+                opCount++;
+            }
+
+            switch (op) {
+                case OP_REMOVE:
+                    oldIndex++;
+                    break;
+                case OP_INSERT:
+                    newIndex++;
+                    position++;
+                    break;
+                default:
+                    oldIndex++;
+                    newIndex++;
+                    position++;
+            }
+        }
+        return new ForecastUpdate(previousRows, rows, ops, opCount);
+    }
+
+    public boolean isFullRefresh() {
+        return previousRows == null;
+    }
+
+    /**
+     * @return how many range notifications {@link #dispatchTo(RecyclerView.Adapter)} sends.
+     */
+    public int getOperationCount() {
+        return mOpCount;
+    }
+
+    /**
+     * Notifies {@code adapter} of the changes, once it holds {@link #rows}.
+     */
+    public void dispatchTo(RecyclerView.Adapter adapter) {
+        for (int i = 0; i < mOpCount; i++) {
+            int position = mOps[3 * i + 1];
+            int count = mOps[3 * i + 2];
+            switch (mOps[3 * i]) {
+                case OP_INSERT:
+                    adapter.notifyItemRangeInserted(position, count);
+                    break;
+                case OP_REMOVE:
+                    adapter.notifyItemRangeRemoved(position, count);
+                    break;
+                default:
+                    adapter.notifyItemRangeChanged(position, count);
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder builder = new StringBuilder();
+        for (int i = 0; i < mOpCount; i++) {
+            builder.append(i == 0 ? "" : " ")
+                    .append("irc".charAt(mOps[3 * i]))
+                    .append(mOps[3 * i + 1]).append('+').append(mOps[3 * i + 2]);
+        }
+        return builder.toString();
+    }
+}
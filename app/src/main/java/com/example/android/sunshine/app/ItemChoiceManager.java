@@ -26,8 +26,9 @@ import android.widget.AbsListView;
 import android.widget.Checkable;
 
 /**
- * The ItemChoiceManager class keeps track of which positions have been selected.  Note that it
- * doesn't take advantage of new adapter features to track changes in the underlying data.
+ * The ItemChoiceManager class keeps track of which positions have been selected.  Adapters with
+ * stable ids that implement {@link PositionLookup} have their selections moved along with the
+ * data; other adapters only keep positional selections.
  */
 public class ItemChoiceManager {
     private final String LOG_TAG = MainActivity.class.getSimpleName();
@@ -39,11 +40,36 @@ public class ItemChoiceManager {
         @Override
         public void onChanged() {
             super.onChanged();
-            if (mAdapter != null && mAdapter.hasStableIds())
-                confirmCheckedPositionsById(mAdapter.getItemCount());
+            confirmCheckedPositions();
+        }
+
+        @Override
+        public void onItemRangeInserted(int positionStart, int itemCount) {
+            confirmCheckedPositions();
+        }
+
+        @Override
+        public void onItemRangeRemoved(int positionStart, int itemCount) {
+            confirmCheckedPositions();
+        }
+
+        @Override
+        public void onItemRangeMoved(int fromPosition, int toPosition, int itemCount) {
+            confirmCheckedPositions();
         }
     };
 
+    /**
+     * Implemented by adapters with stable ids that can find the position of an id in constant
+     * time, so checked items are found again wherever they moved.
+     */
+    public interface PositionLookup {
+        /**
+         * @return the position of the item with {@code id}, or {@link RecyclerView#NO_POSITION}.
+         */
+        int getPositionForItemId(long id);
+    }
+
     private ItemChoiceManager() {
     }
 
@@ -51,6 +77,9 @@ public class ItemChoiceManager {
 
     public ItemChoiceManager(RecyclerView.Adapter adapter) {
         mAdapter = adapter;
+        if (adapter instanceof PositionLookup) {
+            adapter.registerAdapterDataObserver(mAdapterDataObserver);
+        }
     }
 
     /**
@@ -152,6 +181,33 @@ public class ItemChoiceManager {
         mCheckedIdStates.clear();
     }
 
+    private void confirmCheckedPositions() {
+        if (mAdapter == null || !mAdapter.hasStableIds()) {
+            return;
+        }
+        if (mAdapter instanceof PositionLookup) {
+            confirmCheckedPositionsByIndex((PositionLookup) mAdapter);
+        } else {
+            confirmCheckedPositionsById(mAdapter.getItemCount());
+        }
+    }
+
+    void confirmCheckedPositionsByIndex(PositionLookup lookup) {
+        // Clear out the positional check states, we'll rebuild it below from IDs.
+        mCheckStates.clear();
+
+        for (int checkedIndex = 0; checkedIndex < mCheckedIdStates.size(); checkedIndex++) {
+            final int position = lookup.getPositionForItemId(mCheckedIdStates.keyAt(checkedIndex));
+            if (position == RecyclerView.NO_POSITION) {
+                mCheckedIdStates.removeAt(checkedIndex);
+                checkedIndex--;
+            } else {
+                mCheckStates.put(position, true);
+                mCheckedIdStates.setValueAt(checkedIndex, position);
+            }
+        }
+    }
+
     void confirmCheckedPositionsById(int oldItemCount) {
         // Clear out the positional check states, we'll rebuild it below from IDs.
         mCheckStates.clear();
@@ -0,0 +1,98 @@
+package com.example.android.sunshine.app;
+
+import android.support.v7.widget.RecyclerView;
+
+import java.util.Arrays;
+
+/**
+ * Maps the stable ids of an adapter's items to their positions in constant time, without boxing.
+ * An open-addressing hash table of primitive arrays, rebuilt whenever the adapter's data is
+ * swapped and reused across rebuilds.
+ */
+public class ItemIdIndex {
+    private static final int sMinCapacity = 16;
+
+    private long[] mIds = new long[sMinCapacity];
+    // Position + 1, so 0 marks an empty slot.
+    private int[] mPositions = new int[sMinCapacity];
+    private int mSize;
+
+    public void clear() {
+        Arrays.fill(mPositions, 0);
+        mSize = 0;
+    }
+
+    /**
+     * Clears the index and makes room for {@code count} ids without growing.
+     */
+    public void reset(int count) {
+        int capacity = sMinCapacity;
+        // Keep the load factor at or under one half.
+        while (capacity < count * 2) {
+            capacity <<= 1;
+        }
+        if (capacity > mIds.length) {
+            mIds = new long[capacity];
+            mPositions = new int[capacity];
+            mSize = 0;
+        } else {
+            clear();
+        }
+    }
+
+    public void put(long id, int position) {
+        if ((mSize + 1) * 2 > mIds.length) {
+            grow();
+        }
+        int mask = mIds.length - 1;
+        int slot = hash(id) & mask;
+        while (mPositions[slot] != 0) {
+            if (mIds[slot] == id) {
+                mPositions[slot] = position + 1;
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        mIds[slot] = id;
+        mPositions[slot] = position + 1;
+        mSize++;
+    }
+
+    /**
+     * @return the position of {@code id}, or {@link RecyclerView#NO_POSITION} if it isn't indexed.
+     */
+    public int get(long id) {
+        int mask = mIds.length - 1;
+        int slot = hash(id) & mask;
+        while (mPositions[slot] != 0) {
+            if (mIds[slot] == id) {
+                return mPositions[slot] - 1;
+            }
+            slot = (slot + 1) & mask;
+        }
+        return RecyclerView.NO_POSITION;
+    }
+
+    public int size() {
+        return mSize;
+    }
+
+    private void grow() {
+        long[] ids = mIds;
+        int[] positions = mPositions;
+        mIds = new long[ids.length * 2];
+        mPositions = new int[ids.length * 2];
+        mSize = 0;
+        for (int i = 0; i < ids.length; i++) {
+            if (positions[i] != 0) {
+                put(ids[i], positions[i] - 1);
+            }
+        }
+    }
+
+    private static int hash(long id) {
+        int h = (int) (id ^ (id >>> 32)) * 0x9E3779B9;
+        // Ids such as dates share their low bits, so fold the high bits down.
+        return h ^ (h >>> 16);
+    }
+}
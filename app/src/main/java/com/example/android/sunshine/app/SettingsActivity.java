@@ -25,8 +25,10 @@ import android.preference.Preference;
 import android.preference.PreferenceActivity;
 import android.preference.PreferenceManager;
 
+import com.example.android.sunshine.app.art.ArtPackPrefetchService;
 import com.example.android.sunshine.app.data.WeatherContract;
 import com.example.android.sunshine.app.sync.SunshineSyncAdapter;
+import com.example.android.sunshine.app.wearable.WearablePublishIntentService;
 
 /**
  * A {@link PreferenceActivity} that presents a set of application settings.
@@ -139,6 +141,8 @@ public class SettingsActivity extends PreferenceActivity
         } else if (key.equals(getString(R.string.pref_units_key))) {
             // units have changed. update lists of weather entries accordingly
             getContentResolver().notifyChange(WeatherContract.WeatherEntry.CONTENT_URI, null);
+            // the wearable formats temperatures itself, it only needs the new unit preference
+            WearablePublishIntentService.startPublish(this);
         } else if (key.equals(getString(R.string.pref_location_status_key))) {
             // our location status has changed.  Update the summary accordingly
             Preference locationPreference = findPreference(getString(R.string.pref_location_key));
@@ -146,6 +150,8 @@ public class SettingsActivity extends PreferenceActivity
         } else if (key.equals(getString(R.string.pref_art_pack_key))) {
             // art pack have changed. update lists of weather entries accordingly
             getContentResolver().notifyChange(WeatherContract.WeatherEntry.CONTENT_URI, null);
+            // download the new pack so it can be shown without the network
+            ArtPackPrefetchService.startPrefetch(this);
         }
     }
 
@@ -0,0 +1,88 @@
+package com.example.android.sunshine.app;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.preference.PreferenceManager;
+
+/**
+ * An immutable copy of the user settings, shared by the whole process. Reading a setting is a field
+ * access instead of a preference lookup plus resource reads for its key and default; a single
+ * preference listener replaces the snapshot whenever one of the settings changes.
+ */
+public class SettingsSnapshot {
+    private static volatile SettingsSnapshot sCurrent;
+    private static SharedPreferences.OnSharedPreferenceChangeListener sListener;
+    private static int sBuildCount;
+
+    public final String location;
+    public final boolean metric;
+    /** URL format of the art pack, with a %s for the art name. */
+    public final String artPack;
+    public final boolean usingLocalGraphics;
+    public final boolean notificationsEnabled;
+
+    private SettingsSnapshot(Context context, SharedPreferences prefs) {
+        location = prefs.getString(context.getString(R.string.pref_location_key),
+                context.getString(R.string.pref_location_default));
+
+        String unitsMetric = context.getString(R.string.pref_units_metric);
+        metric = prefs.getString(context.getString(R.string.pref_units_key), unitsMetric)
+                .equals(unitsMetric);
+
+        String sunshineArtPack = context.getString(R.string.pref_art_pack_sunshine);
+        artPack = prefs.getString(context.getString(R.string.pref_art_pack_key), sunshineArtPack);
+        usingLocalGraphics = artPack.equals(sunshineArtPack);
+
+        notificationsEnabled = prefs.getBoolean(context.getString(R.string.pref_enable_notifications_key),
+                Boolean.parseBoolean(context.getString(R.string.pref_enable_notifications_default)));
+    }
+
+    /**
+     * @return the current settings.
+     */
+    public static SettingsSnapshot get(Context context) {
+        SettingsSnapshot current = sCurrent;
+        if (current != null) {
+            return current;
+        }
+        synchronized (SettingsSnapshot.class) {
+            if (sCurrent == null) {
+                final Context appContext = context.getApplicationContext();
+                SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(appContext);
+                final String[] keys = {
+                        appContext.getString(R.string.pref_location_key),
+                        appContext.getString(R.string.pref_units_key),
+                        appContext.getString(R.string.pref_art_pack_key),
+                        appContext.getString(R.string.pref_enable_notifications_key)
+                };
+                // SharedPreferences only keeps a weak reference to its listeners.
+                sListener = new SharedPreferences.OnSharedPreferenceChangeListener() {
+                    @Override
+                    public void onSharedPreferenceChanged(SharedPreferences sharedPreferences, String key) {
+                        for (String settingKey : keys) {
+                            if (settingKey.equals(key)) {
+                                refresh(appContext, sharedPreferences);
+                                return;
+                            }
+                        }
+                    }
+                };
+                prefs.registerOnSharedPreferenceChangeListener(sListener);
+                refresh(appContext, prefs);
+            }
+            return sCurrent;
+        }
+    }
+
+    private static synchronized void refresh(Context context, SharedPreferences prefs) {
+        sCurrent = new SettingsSnapshot(context, prefs);
+        sBuildCount++;
+    }
+
+    /**
+     * @return how many times the settings were read from preferences, for instrumentation.
+     */
+    public static synchronized int getBuildCount() {
+        return sBuildCount;
+    }
+}
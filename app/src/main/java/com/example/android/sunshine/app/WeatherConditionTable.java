@@ -0,0 +1,259 @@
+package com.example.android.sunshine.app;
+
+import android.content.Context;
+
+import com.example.android.sunshine.common.WeatherCondition;
+
+import java.util.Locale;
+
+/**
+ * Everything Sunshine derives from an OpenWeatherMap condition id, precomputed in arrays indexed
+ * by the id so each lookup is a single array access. The resource tables never change; the art
+ * URLs and descriptions are built once per art pack and locale.
+ */
+public class WeatherConditionTable {
+    // Highest condition id with a description.
+    private static final int sMaxWeatherId = 962;
+
+    private static final int[] sIconResources = new int[sMaxWeatherId + 1];
+    private static final int[] sArtResources = new int[sMaxWeatherId + 1];
+    private static final String[] sImageUrls = new String[sMaxWeatherId + 1];
+    private static final int[] sStringResources = new int[sMaxWeatherId + 1];
+
+    private static WeatherConditionTable sInstance;
+
+    private final Context mContext;
+    private final Locale mLocale;
+    private final String mArtPack;
+    // Indexed by WeatherCondition ordinal.
+    private final String[] mArtUrls = new String[WeatherCondition.values().length];
+    private final String[] mDescriptions = new String[sMaxWeatherId + 1];
+
+    static {
+        for (int weatherId = 0; weatherId <= sMaxWeatherId; weatherId++) {
+            WeatherCondition condition = WeatherCondition.forWeatherId(weatherId);
+            sIconResources[weatherId] = iconFor(condition);
+            sArtResources[weatherId] = artFor(condition);
+            sImageUrls[weatherId] = imageUrlFor(weatherId, condition);
+            sStringResources[weatherId] = stringFor(weatherId);
+        }
+    }
+
+    private WeatherConditionTable(Context context, Locale locale, String artPack) {
+        mContext = context;
+        mLocale = locale;
+        mArtPack = artPack;
+
+        for (WeatherCondition condition : WeatherCondition.values()) {
+            mArtUrls[condition.ordinal()] = String.format(Locale.US, artPack, condition.getArtName());
+        }
+
+        for (int weatherId = 0; weatherId <= sMaxWeatherId; weatherId++) {
+            if (sStringResources[weatherId] != 0) {
+                mDescriptions[weatherId] = context.getString(sStringResources[weatherId]);
+            }
+        }
+    }
+
+    /**
+     * @return the table for the current art pack and locale, building it if either changed.
+     */
+    public static synchronized WeatherConditionTable get(Context context) {
+        Locale locale = context.getResources().getConfiguration().locale;
+        String artPack = SettingsSnapshot.get(context).artPack;
+        if (sInstance == null || !sInstance.mLocale.equals(locale) || !sInstance.mArtPack.equals(artPack)) {
+            sInstance = new WeatherConditionTable(context.getApplicationContext(), locale, artPack);
+        }
+        return sInstance;
+    }
+
+    /**
+     * @return resource id for the corresponding icon. -1 if no relation is found.
+     */
+    public static int getIconResource(int weatherId) {
+        return isInTable(weatherId) ? sIconResources[weatherId] : -1;
+    }
+
+    /**
+     * @return resource id for the corresponding art. -1 if no relation is found.
+     */
+    public static int getArtResource(int weatherId) {
+        return isInTable(weatherId) ? sArtResources[weatherId] : -1;
+    }
+
+    /**
+     * @return a URL to an image of the condition, null if no mapping is found.
+     */
+    public static String getImageUrl(int weatherId) {
+        return isInTable(weatherId) ? sImageUrls[weatherId] : null;
+    }
+
+    /**
+     * @return url for the corresponding artwork in the current art pack. null if no relation is
+     * found.
+     */
+    public String getArtUrl(int weatherId) {
+        WeatherCondition condition = WeatherCondition.forWeatherId(weatherId);
+        return condition == null ? null : mArtUrls[condition.ordinal()];
+    }
+
+    /**
+     * @return the localized description of the condition.
+     */
+    public String getDescription(int weatherId) {
+        if (isInTable(weatherId) && mDescriptions[weatherId] != null) {
+            return mDescriptions[weatherId];
+        }
+        return mContext.getString(R.string.condition_unknown, weatherId);
+    }
+
+    private static boolean isInTable(int weatherId) {
+        return weatherId >= 0 && weatherId <= sMaxWeatherId;
+    }
+
+    private static int iconFor(WeatherCondition condition) {
+        if (condition == null) {
+            return -1;
+        }
+        switch (condition) {
+            case STORM:
+                return R.drawable.ic_storm;
+            case LIGHT_RAIN:
+                return R.drawable.ic_light_rain;
+            case RAIN:
+                return R.drawable.ic_rain;
+            case SNOW:
+                return R.drawable.ic_snow;
+            case FOG:
+                return R.drawable.ic_fog;
+            case CLEAR:
+                return R.drawable.ic_clear;
+            case LIGHT_CLOUDS:
+                return R.drawable.ic_light_clouds;
+            case CLOUDS:
+                return R.drawable.ic_cloudy;
+        }
+        return -1;
+    }
+
+    private static int artFor(WeatherCondition condition) {
+        if (condition == null) {
+            return -1;
+        }
+        switch (condition) {
+            case STORM:
+                return R.drawable.art_storm;
+            case LIGHT_RAIN:
+                return R.drawable.art_light_rain;
+            case RAIN:
+                return R.drawable.art_rain;
+            case SNOW:
+                return R.drawable.art_snow;
+            case FOG:
+                return R.drawable.art_fog;
+            case CLEAR:
+                return R.drawable.art_clear;
+            case LIGHT_CLOUDS:
+                return R.drawable.art_light_clouds;
+            case CLOUDS:
+                return R.drawable.art_clouds;
+        }
+        return -1;
+    }
+
+    private static String imageUrlFor(int weatherId, WeatherCondition condition) {
+        if (condition == null) {
+            return null;
+        }
+        switch (condition) {
+            case STORM:
+                // Dust storms have their own picture.
+                return weatherId == 781
+                        ? "http://upload.wikimedia.org/wikipedia/commons/d/dc/Raised_dust_ahead_of_a_severe_thunderstorm_1.jpg"
+                        : "http://upload.wikimedia.org/wikipedia/commons/2/28/Thunderstorm_in_Annemasse,_France.jpg";
+            case LIGHT_RAIN:
+                return "http://upload.wikimedia.org/wikipedia/commons/a/a0/Rain_on_leaf_504605006.jpg";
+            case RAIN:
+                return "http://upload.wikimedia.org/wikipedia/commons/6/6c/Rain-on-Thassos.jpg";
+            case SNOW:
+                return "http://upload.wikimedia.org/wikipedia/commons/b/b8/Fresh_snow.JPG";
+            case FOG:
+                return "http://upload.wikimedia.org/wikipedia/commons/e/e6/Westminster_fog_-_London_-_UK.jpg";
+            case CLEAR:
+                return "http://upload.wikimedia.org/wikipedia/commons/7/7e/A_few_trees_and_the_sun_(6009964513).jpg";
+            case LIGHT_CLOUDS:
+                return "http://upload.wikimedia.org/wikipedia/commons/e/e7/Cloudy_Blue_Sky_(5031259890).jpg";
+            case CLOUDS:
+                return "http://upload.wikimedia.org/wikipedia/commons/5/54/Cloudy_hills_in_Elis,_Greece_2.jpg";
+        }
+        return null;
+    }
+
+    /**
+     * @return the description string resource, 0 if there is none.
+     */
+    private static int stringFor(int weatherId) {
+        // Based on weather code data found at:
+        // http://bugs.openweathermap.org/projects/api/wiki/Weather_Condition_Codes
+        if (weatherId >= 200 && weatherId <= 232) {
+            return R.string.condition_2xx;
+        } else if (weatherId >= 300 && weatherId <= 321) {
+            return R.string.condition_3xx;
+        }
+        switch (weatherId) {
+            case 500: return R.string.condition_500;
+            case 501: return R.string.condition_501;
+            case 502: return R.string.condition_502;
+            case 503: return R.string.condition_503;
+            case 504: return R.string.condition_504;
+            case 511: return R.string.condition_511;
+            case 520: return R.string.condition_520;
+            case 531: return R.string.condition_531;
+            case 600: return R.string.condition_600;
+            case 601: return R.string.condition_601;
+            case 602: return R.string.condition_602;
+            case 611: return R.string.condition_611;
+            case 612: return R.string.condition_612;
+            case 615: return R.string.condition_615;
+            case 616: return R.string.condition_616;
+            case 620: return R.string.condition_620;
+            case 621: return R.string.condition_621;
+            case 622: return R.string.condition_622;
+            case 701: return R.string.condition_701;
+            case 711: return R.string.condition_711;
+            case 721: return R.string.condition_721;
+            case 731: return R.string.condition_731;
+            case 741: return R.string.condition_741;
+            case 751: return R.string.condition_751;
+            case 761: return R.string.condition_761;
+            case 762: return R.string.condition_762;
+            case 771: return R.string.condition_771;
+            case 781: return R.string.condition_781;
+            case 800: return R.string.condition_800;
+            case 801: return R.string.condition_801;
+            case 802: return R.string.condition_802;
+            case 803: return R.string.condition_803;
+            case 804: return R.string.condition_804;
+            case 900: return R.string.condition_900;
+            case 901: return R.string.condition_901;
+            case 902: return R.string.condition_902;
+            case 903: return R.string.condition_903;
+            case 904: return R.string.condition_904;
+            case 905: return R.string.condition_905;
+            case 906: return R.string.condition_906;
+            case 951: return R.string.condition_951;
+            case 952: return R.string.condition_952;
+            case 953: return R.string.condition_953;
+            case 954: return R.string.condition_954;
+            case 955: return R.string.condition_955;
+            case 956: return R.string.condition_956;
+            case 957: return R.string.condition_957;
+            case 958: return R.string.condition_958;
+            case 959: return R.string.condition_959;
+            case 960: return R.string.condition_960;
+            case 961: return R.string.condition_961;
+            case 962: return R.string.condition_962;
+        }
+        return 0;
+    }
+}
@@ -0,0 +1,127 @@
+package com.example.android.sunshine.app.art;
+
+import android.annotation.SuppressLint;
+import android.content.Context;
+import android.content.res.Resources;
+import android.net.Uri;
+import android.os.Build;
+
+import com.example.android.sunshine.app.R;
+import com.example.android.sunshine.app.SettingsSnapshot;
+import com.example.android.sunshine.app.Utility;
+import com.example.android.sunshine.common.WeatherCondition;
+
+import java.io.File;
+import java.util.Locale;
+
+/**
+ * On-disk copies of a remote art pack, decoded and scaled to the sizes Sunshine shows them at,
+ * written by {@link ArtPackPrefetchService}. Each art pack gets its own directory, named after the
+ * pack and the cache format version, and is only used once every image has been written.
+ * <p/>
+ * The packs live in the app's files directory rather than its cache directory: the system may
+ * delete cache files one at a time, which would leave a pack marked complete with images missing.
+ * Only one pack is kept, so they don't pile up.
+ */
+public class ArtPackCache {
+    public static final int SIZE_ART = 0;
+    public static final int SIZE_ICON = 1;
+    public static final int SIZE_NOTIFICATION = 2;
+    static final int SIZE_COUNT = 3;
+
+    // Bump when the files change shape, so old directories are dropped.
+    private static final int sCacheVersion = 1;
+    private static final String sCacheDirectory = "art-packs";
+    private static final String sCompleteMarker = "complete";
+
+    // The art pack the cache state below was looked up for.
+    private static String sCheckedArtPack;
+    // Local uris per size and condition ordinal, null if the pack isn't fully cached.
+    private static String[][] sUris;
+
+    /**
+     * @return a uri for the art of {@code weatherId} in the current art pack: the cached file at
+     * {@code size} when the pack has been prefetched, the remote url otherwise.
+     */
+    public static String getArtUrl(Context context, int weatherId, int size) {
+        WeatherCondition condition = WeatherCondition.forWeatherId(weatherId);
+        if (condition != null) {
+            String[][] uris = getCachedUris(context, SettingsSnapshot.get(context).artPack);
+            if (uris != null) {
+                return uris[size][condition.ordinal()];
+            }
+        }
+        return Utility.getArtUrlForWeatherCondition(context, weatherId);
+    }
+
+    /**
+     * @return true if every image of {@code artPack} is on disk.
+     */
+    public static boolean isCached(Context context, String artPack) {
+        return getCachedUris(context, artPack) != null;
+    }
+
+    private static synchronized String[][] getCachedUris(Context context, String artPack) {
+        if (!artPack.equals(sCheckedArtPack)) {
+            sCheckedArtPack = artPack;
+            File directory = getDirectory(context, artPack);
+            sUris = new File(directory, sCompleteMarker).exists() ? buildUris(directory) : null;
+        }
+        return sUris;
+    }
+
+    /**
+     * Looks the cache up again, after {@link ArtPackPrefetchService} finished writing a pack.
+     */
+    static synchronized void invalidate() {
+        sCheckedArtPack = null;
+        sUris = null;
+    }
+
+    private static String[][] buildUris(File directory) {
+        WeatherCondition[] conditions = WeatherCondition.values();
+        String[][] uris = new String[SIZE_COUNT][conditions.length];
+        for (int size = 0; size < SIZE_COUNT; size++) {
+            for (WeatherCondition condition : conditions) {
+                uris[size][condition.ordinal()] =
+                        Uri.fromFile(getFile(directory, condition, size)).toString();
+            }
+        }
+        return uris;
+    }
+
+    static File getRoot(Context context) {
+        return new File(context.getFilesDir(), sCacheDirectory);
+    }
+
+    static File getDirectory(Context context, String artPack) {
+        return new File(getRoot(context),
+                String.format(Locale.US, "v%d-%08x", sCacheVersion, artPack.hashCode()));
+    }
+
+    static File getFile(File directory, WeatherCondition condition, int size) {
+        return new File(directory, condition.getArtName() + "_" + size + ".png");
+    }
+
+    static File getCompleteMarker(File directory) {
+        return new File(directory, sCompleteMarker);
+    }
+
+    /**
+     * @return the width and height, in pixels, images are cached at for {@code size}.
+     */
+    @SuppressLint("InlinedApi")
+    static int getPixelSize(Resources resources, int size) {
+        switch (size) {
+            case SIZE_ART:
+                return resources.getDimensionPixelSize(R.dimen.today_icon);
+            case SIZE_ICON:
+                return resources.getDimensionPixelSize(R.dimen.list_icon);
+            default:
+                // On Honeycomb and higher devices, we can retrieve the size of the large icon
+                return Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB
+                        ? resources.getDimensionPixelSize(android.R.dimen.notification_large_icon_width)
+                        : resources.getDimensionPixelSize(R.dimen.notification_large_icon_default);
+        }
+    }
+}
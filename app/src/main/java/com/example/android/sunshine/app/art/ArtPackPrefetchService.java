@@ -0,0 +1,174 @@
+package com.example.android.sunshine.app.art;
+
+import android.app.IntentService;
+import android.content.Context;
+import android.content.Intent;
+import android.graphics.Bitmap;
+import android.net.ConnectivityManager;
+import android.net.NetworkInfo;
+import android.support.v4.net.ConnectivityManagerCompat;
+import android.util.Log;
+
+import com.bumptech.glide.Glide;
+import com.example.android.sunshine.app.SettingsSnapshot;
+import com.example.android.sunshine.app.data.WeatherContract;
+import com.example.android.sunshine.app.sync.SunshineSyncAdapter;
+import com.example.android.sunshine.common.WeatherCondition;
+
+import java.io.File;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
+
+/**
+ * IntentService which downloads every image of the selected remote art pack, scales it to each
+ * size in {@link ArtPackCache} and writes it to disk, so the list, detail, widgets and
+ * notifications never wait on the network for art. Only runs on an unmetered network; the next
+ * sync tries again otherwise.
+ */
+public class ArtPackPrefetchService extends IntentService {
+    private static final String LOG_TAG = ArtPackPrefetchService.class.getSimpleName();
+
+    public ArtPackPrefetchService() {
+        super("ArtPackPrefetchService");
+    }
+
+    /**
+     * Prefetches the current art pack, unless it uses the local graphics or is already cached.
+     * Those checks run on the service's thread, since the settings snapshot may not have seen a
+     * preference change made just before this call yet.
+     */
+    public static void startPrefetch(Context context) {
+        context.startService(new Intent(context, ArtPackPrefetchService.class));
+    }
+
+    @Override
+    protected void onHandleIntent(Intent intent) {
+        SettingsSnapshot settings = SettingsSnapshot.get(this);
+        String artPack = settings.artPack;
+        // Drops the pack that was in use before, and what an abandoned prefetch left behind.
+        deleteOtherPacks(this, settings.usingLocalGraphics
+                ? null : ArtPackCache.getDirectory(this, artPack));
+        if (settings.usingLocalGraphics || ArtPackCache.isCached(this, artPack)) {
+            return;
+        }
+        if (!isOnUnmeteredNetwork()) {
+            Log.d(LOG_TAG, "Not prefetching the art pack on a metered network.");
+            return;
+        }
+
+        File directory = ArtPackCache.getDirectory(this, artPack);
+        if (!directory.isDirectory() && !directory.mkdirs()) {
+            Log.e(LOG_TAG, "Unable to create " + directory);
+            return;
+        }
+
+        int[] pixelSizes = new int[ArtPackCache.SIZE_COUNT];
+        for (int size = 0; size < ArtPackCache.SIZE_COUNT; size++) {
+            pixelSizes[size] = ArtPackCache.getPixelSize(getResources(), size);
+        }
+
+        for (WeatherCondition condition : WeatherCondition.values()) {
+            String url = String.format(Locale.US, artPack, condition.getArtName());
+            for (int size = 0; size < ArtPackCache.SIZE_COUNT; size++) {
+                File file = ArtPackCache.getFile(directory, condition, size);
+                if (file.exists()) {
+                    // Written by an earlier, interrupted prefetch.
+                    continue;
+                }
+                if (!fetch(url, pixelSizes[size], file)) {
+                    return;
+                }
+            }
+        }
+
+        try {
+            if (!ArtPackCache.getCompleteMarker(directory).createNewFile()) {
+                Log.d(LOG_TAG, "Art pack was already marked complete.");
+            }
+        } catch (IOException e) {
+            Log.e(LOG_TAG, "Unable to mark " + directory + " complete", e);
+            return;
+        }
+        ArtPackCache.invalidate();
+        Log.d(LOG_TAG, "Prefetched art pack into " + directory);
+
+        // Let the list and widgets switch over to the local copies.
+        getContentResolver().notifyChange(WeatherContract.WeatherEntry.CONTENT_URI, null);
+        sendBroadcast(new Intent(SunshineSyncAdapter.ACTION_DATA_UPDATED).setPackage(getPackageName()));
+    }
+
+    /**
+     * Downloads {@code url} through Glide's disk cache, so the source is only fetched once for
+     * all sizes, and writes it scaled to {@code pixelSize} to {@code file}.
+     */
+    private boolean fetch(String url, int pixelSize, File file) {
+        Bitmap bitmap;
+        try {
+            bitmap = Glide.with(getApplicationContext())
+                    .load(url)
+                    .asBitmap()
+                    .fitCenter()
+                    .into(pixelSize, pixelSize).get();
+        } catch (InterruptedException | ExecutionException e) {
+            Log.e(LOG_TAG, "Error retrieving art from " + url, e);
+            return false;
+        }
+
+        // Write to a temporary file first so a partial image is never used.
+        File temporary = new File(file.getPath() + ".tmp");
+        OutputStream out = null;
+        try {
+            out = new FileOutputStream(temporary);
+            bitmap.compress(Bitmap.CompressFormat.PNG, 100, out);
+            out.close();
+            out = null;
+            return temporary.renameTo(file);
+        } catch (IOException e) {
+            Log.e(LOG_TAG, "Error writing " + file, e);
+            return false;
+        } finally {
+            if (out != null) {
+                try {
+                    out.close();
+                } catch (IOException e) {
+                    // Ignored, the write already failed.
+                }
+                temporary.delete();
+            }
+        }
+    }
+
+    /**
+     * Deletes every pack directory but {@code current}, or all of them if it is null.
+     */
+    private static void deleteOtherPacks(Context context, File current) {
+        File[] packs = ArtPackCache.getRoot(context).listFiles();
+        if (packs == null) {
+            return;
+        }
+        for (File pack : packs) {
+            if (pack.equals(current)) {
+                continue;
+            }
+            // The cache may still remember this pack as complete.
+            ArtPackCache.invalidate();
+            File[] files = pack.listFiles();
+            if (files != null) {
+                for (File file : files) {
+                    file.delete();
+                }
+            }
+            pack.delete();
+        }
+    }
+
+    private boolean isOnUnmeteredNetwork() {
+        ConnectivityManager cm = (ConnectivityManager) getSystemService(Context.CONNECTIVITY_SERVICE);
+        NetworkInfo activeNetwork = cm.getActiveNetworkInfo();
+        return activeNetwork != null && activeNetwork.isConnected()
+                && !ConnectivityManagerCompat.isActiveNetworkMetered(cm);
+    }
+}
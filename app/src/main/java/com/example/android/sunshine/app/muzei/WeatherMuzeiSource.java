@@ -16,8 +16,11 @@
 package com.example.android.sunshine.app.muzei;
 
 import android.content.Intent;
+import android.content.SharedPreferences;
 import android.database.Cursor;
 import android.net.Uri;
+import android.text.TextUtils;
+import android.util.Log;
 
 import com.example.android.sunshine.app.MainActivity;
 import com.example.android.sunshine.app.Utility;
@@ -27,9 +30,20 @@ import com.google.android.apps.muzei.api.Artwork;
 import com.google.android.apps.muzei.api.MuzeiArtSource;
 
 /**
- * Muzei source that changes your background based on the current weather conditions
+ * Muzei source that changes your background based on the current weather conditions.
+ * <p/>
+ * Artwork is only published when the image, description or location differ from the current
+ * artwork, since every publish makes Muzei download and render the wallpaper again. Changes
+ * coming from syncs are also held back until {@link #sMinPublishIntervalMillis} has passed since
+ * the last publish.
  */
 public class WeatherMuzeiSource extends MuzeiArtSource {
+    private static final String LOG_TAG = WeatherMuzeiSource.class.getSimpleName();
+
+    private static final String sPreferences = "muzei_source";
+    private static final String sLastPublishKey = "last_publish";
+    private static final long sMinPublishIntervalMillis = 15 * 60 * 1000;
+
     private static final String[] FORECAST_COLUMNS = new String[]{
             WeatherContract.WeatherEntry.COLUMN_WEATHER_ID,
             WeatherContract.WeatherEntry.COLUMN_SHORT_DESC
@@ -38,6 +52,11 @@ public class WeatherMuzeiSource extends MuzeiArtSource {
     private static final int INDEX_WEATHER_ID = 0;
     private static final int INDEX_SHORT_DESC = 1;
 
+    // Only used on the source's worker thread.
+    private static int sPublished;
+    private static int sUnchanged;
+    private static int sDeferred;
+
     public WeatherMuzeiSource() {
         super("WeatherMuzeiSource");
     }
@@ -59,6 +78,9 @@ public class WeatherMuzeiSource extends MuzeiArtSource {
                 location, System.currentTimeMillis());
         Cursor cursor = getContentResolver().query(weatherForLocationUri, FORECAST_COLUMNS, null,
                 null, WeatherContract.WeatherEntry.COLUMN_DATE + " ASC");
+        if (cursor == null) {
+            return;
+        }
         if (cursor.moveToFirst()) {
             int weatherId = cursor.getInt(INDEX_WEATHER_ID);
             String desc = cursor.getString(INDEX_SHORT_DESC);
@@ -66,14 +88,48 @@ public class WeatherMuzeiSource extends MuzeiArtSource {
             String imageUrl = Utility.getImageUrlForWeatherCondition(weatherId);
             // Only publish a new wallpaper if we have a valid image
             if (imageUrl != null) {
-                publishArtwork(new Artwork.Builder()
-                        .imageUri(Uri.parse(imageUrl))
-                        .title(desc)
-                        .byline(location)
-                        .viewIntent(new Intent(this, MainActivity.class))
-                        .build());
+                publishIfChanged(reason, Uri.parse(imageUrl), desc, location);
             }
         }
         cursor.close();
     }
+
+    private void publishIfChanged(int reason, Uri imageUri, String title, String byline) {
+        Artwork current = getCurrentArtwork();
+        // Muzei may not have our artwork any more when the source is selected again.
+        if (reason != UPDATE_REASON_INITIAL && current != null
+                && imageUri.equals(current.getImageUri())
+                && TextUtils.equals(title, current.getTitle())
+                && TextUtils.equals(byline, current.getByline())) {
+            sUnchanged++;
+            logPublishes("unchanged");
+            return;
+        }
+
+        SharedPreferences prefs = getSharedPreferences(sPreferences, MODE_PRIVATE);
+        long now = System.currentTimeMillis();
+        long nextAllowed = prefs.getLong(sLastPublishKey, 0) + sMinPublishIntervalMillis;
+        if (reason == UPDATE_REASON_OTHER && current != null && now < nextAllowed) {
+            // Publish whatever the weather is by then, skipping the changes in between.
+            scheduleUpdate(nextAllowed);
+            sDeferred++;
+            logPublishes("deferred");
+            return;
+        }
+
+        publishArtwork(new Artwork.Builder()
+                .imageUri(imageUri)
+                .title(title)
+                .byline(byline)
+                .viewIntent(new Intent(this, MainActivity.class))
+                .build());
+        prefs.edit().putLong(sLastPublishKey, now).apply();
+        sPublished++;
+        logPublishes("published");
+    }
+
+    private void logPublishes(String outcome) {
+        Log.d(LOG_TAG, "Artwork " + outcome + "; since start: " + sPublished + " published, "
+                + sUnchanged + " unchanged, " + sDeferred + " deferred");
+    }
 }
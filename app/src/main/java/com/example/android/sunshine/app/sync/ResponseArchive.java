@@ -0,0 +1,235 @@
+package com.example.android.sunshine.app.sync;
+
+import android.content.Context;
+import android.util.Log;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Rotating on-disk store of raw OpenWeatherMap responses, used to reproduce sync performance
+ * issues offline. Each capture is a single file made of a small text header (request, status,
+ * timing and response headers, one "# key: value" per line), an empty line, and the untouched
+ * response body.
+ * <p/>
+ * Files are written and read through memory-mapped {@link FileChannel}s so that replaying a
+ * capture decodes the body straight from the page cache, without intermediate stream copies.
+ * The total size of the archive is capped; the oldest captures are dropped first.
+ */
+public class ResponseArchive {
+    private static final String LOG_TAG = ResponseArchive.class.getSimpleName();
+
+    private static final String sArchiveDirectory = "owm-archive";
+    private static final String sCaptureSuffix = ".owm";
+    private static final long sDefaultMaxBytes = 1024 * 1024;
+
+    private static final Charset UTF_8 = Charset.forName("UTF-8");
+    private static final byte[] HEADER_TERMINATOR = "\n\n".getBytes(UTF_8);
+
+    public static final String HEADER_URL = "url";
+    public static final String HEADER_LOCATION = "location";
+    public static final String HEADER_STATUS = "status";
+    public static final String HEADER_CAPTURED_AT = "captured-at";
+    public static final String HEADER_CONNECT_MS = "connect-ms";
+    public static final String HEADER_READ_MS = "read-ms";
+
+    private final File mDirectory;
+    private final long mMaxBytes;
+
+    public ResponseArchive(File directory, long maxBytes) {
+        mDirectory = directory;
+        mMaxBytes = maxBytes;
+    }
+
+    public static ResponseArchive forContext(Context context) {
+        return new ResponseArchive(new File(context.getCacheDir(), sArchiveDirectory), sDefaultMaxBytes);
+    }
+
+    /**
+     * Writes a captured response to a new file in the archive and trims the archive back under
+     * its size cap.
+     *
+     * @param url             the requested URL
+     * @param locationSetting the location query used for the request
+     * @param status          the HTTP status code of the response
+     * @param responseHeaders the response headers, as returned by the connection. May be null.
+     * @param connectMillis   time spent opening the connection
+     * @param readMillis      time spent reading the response body
+     * @param body            the raw response body
+     * @return the capture file, or null if it could not be written.
+     */
+    public File capture(String url, String locationSetting, int status,
+                        Map<String, List<String>> responseHeaders,
+                        long connectMillis, long readMillis, String body) {
+        if (!mDirectory.exists() && !mDirectory.mkdirs()) {
+            Log.w(LOG_TAG, "Unable to create archive directory " + mDirectory);
+            return null;
+        }
+
+        long capturedAt = System.currentTimeMillis();
+
+        StringBuilder header = new StringBuilder(512);
+        appendHeader(header, HEADER_URL, url);
+        appendHeader(header, HEADER_LOCATION, locationSetting);
+        appendHeader(header, HEADER_STATUS, String.valueOf(status));
+        appendHeader(header, HEADER_CAPTURED_AT, String.valueOf(capturedAt));
+        appendHeader(header, HEADER_CONNECT_MS, String.valueOf(connectMillis));
+        appendHeader(header, HEADER_READ_MS, String.valueOf(readMillis));
+        if (responseHeaders != null) {
+            for (Map.Entry<String, List<String>> entry : responseHeaders.entrySet()) {
+                // The status line is reported with a null key.
+                if (entry.getKey() == null) {
+                    continue;
+                }
+                for (String value : entry.getValue()) {
+                    appendHeader(header, entry.getKey(), value);
+                }
+            }
+        }
+        header.append('\n');
+
+        byte[] headerBytes = header.toString().getBytes(UTF_8);
+        byte[] bodyBytes = body.getBytes(UTF_8);
+
+        File file = new File(mDirectory, capturedAt + sCaptureSuffix);
+        RandomAccessFile randomAccessFile = null;
+        try {
+            randomAccessFile = new RandomAccessFile(file, "rw");
+            FileChannel channel = randomAccessFile.getChannel();
+            MappedByteBuffer buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0,
+                    headerBytes.length + bodyBytes.length);
+            buffer.put(headerBytes);
+            buffer.put(bodyBytes);
+            buffer.force();
+        } catch (IOException e) {
+            Log.e(LOG_TAG, "Error capturing response to " + file, e);
+            file.delete();
+            return null;
+        } finally {
+            closeQuietly(randomAccessFile);
+        }
+
+        rotate();
+        return file;
+    }
+
+    /**
+     * @return the captures currently in the archive, oldest first.
+     */
+    public File[] listCaptures() {
+        File[] files = mDirectory.listFiles();
+        if (files == null) {
+            return new File[0];
+        }
+
+        int count = 0;
+        for (File file : files) {
+            if (file.getName().endsWith(sCaptureSuffix)) {
+                files[count++] = file;
+            }
+        }
+        File[] captures = Arrays.copyOf(files, count);
+        Arrays.sort(captures, new Comparator<File>() {
+            @Override
+            public int compare(File lhs, File rhs) {
+                return lhs.getName().compareTo(rhs.getName());
+            }
+        });
+        return captures;
+    }
+
+    /**
+     * Maps a capture read-only and decodes its body.
+     *
+     * @param capture a file returned by {@link #listCaptures()}
+     * @return the raw response body
+     */
+    public static String readBody(File capture) throws IOException {
+        MappedByteBuffer buffer = map(capture);
+        buffer.position(findBodyOffset(buffer));
+        return UTF_8.decode(buffer).toString();
+    }
+
+    /**
+     * Maps a capture read-only and returns the value of one of its header fields.
+     *
+     * @param capture a file returned by {@link #listCaptures()}
+     * @param name    the header name, e.g. {@link #HEADER_LOCATION}
+     * @return the value of the first matching header, or null if it isn't present.
+     */
+    public static String readHeader(File capture, String name) throws IOException {
+        MappedByteBuffer buffer = map(capture);
+        buffer.limit(findBodyOffset(buffer));
+        String prefix = "# " + name + ": ";
+        for (String line : UTF_8.decode(buffer).toString().split("\n")) {
+            if (line.startsWith(prefix)) {
+                return line.substring(prefix.length());
+            }
+        }
+        return null;
+    }
+
+    private void rotate() {
+        File[] captures = listCaptures();
+
+        long totalBytes = 0;
+        for (File capture : captures) {
+            totalBytes += capture.length();
+        }
+
+        // Always keep the most recent capture, even if it alone exceeds the cap.
+        for (int i = 0; i < captures.length - 1 && totalBytes > mMaxBytes; i++) {
+            totalBytes -= captures[i].length();
+            if (!captures[i].delete()) {
+                Log.w(LOG_TAG, "Unable to delete " + captures[i]);
+            }
+        }
+    }
+
+    private static MappedByteBuffer map(File capture) throws IOException {
+        RandomAccessFile randomAccessFile = new RandomAccessFile(capture, "r");
+        try {
+            FileChannel channel = randomAccessFile.getChannel();
+            return channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        } finally {
+            // The mapping stays valid after the channel is closed.
+            closeQuietly(randomAccessFile);
+        }
+    }
+
+    private static int findBodyOffset(ByteBuffer buffer) throws IOException {
+        int limit = buffer.limit() - HEADER_TERMINATOR.length;
+        for (int i = 0; i <= limit; i++) {
+            if (buffer.get(i) == HEADER_TERMINATOR[0] && buffer.get(i + 1) == HEADER_TERMINATOR[1]) {
+                return i + HEADER_TERMINATOR.length;
+            }
+        }
+        throw new IOException("Malformed capture, header terminator not found");
+    }
+
+    private static void appendHeader(StringBuilder header, String name, String value) {
+        // Keep each header on a single line so that the first empty line always ends the header.
+        String safeValue = value == null ? "" : value.replace('\n', ' ');
+        header.append("# ").append(name).append(": ").append(safeValue).append('\n');
+    }
+
+    private static void closeQuietly(RandomAccessFile file) {
+        if (file == null) {
+            return;
+        }
+        try {
+            file.close();
+        } catch (IOException e) {
+            Log.e(LOG_TAG, "Error closing archive file", e);
+        }
+    }
+}
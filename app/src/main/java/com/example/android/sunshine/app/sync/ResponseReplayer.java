@@ -0,0 +1,112 @@
+package com.example.android.sunshine.app.sync;
+
+import android.content.Context;
+import android.os.Debug;
+import android.os.SystemClock;
+import android.util.Log;
+
+import org.json.JSONException;
+
+import java.io.File;
+import java.io.IOException;
+
+/**
+ * Feeds the responses stored in a {@link ResponseArchive} back through the sync adapter's
+ * parse and persist pipeline, so sync performance can be measured without the network.
+ * <p/>
+ * Replayed syncs write to the weather database like real ones, but don't notify widgets, Muzei,
+ * the wearable or the user.
+ */
+public class ResponseReplayer {
+    private static final String LOG_TAG = ResponseReplayer.class.getSimpleName();
+
+    private final Context mContext;
+    private final ResponseArchive mArchive;
+
+    public static class Report {
+        public final int syncs;
+        public final long elapsedMillis;
+        public final long allocatedBytes;
+        public final int allocatedObjects;
+
+        Report(int syncs, long elapsedMillis, long allocatedBytes, int allocatedObjects) {
+            this.syncs = syncs;
+            this.elapsedMillis = elapsedMillis;
+            this.allocatedBytes = allocatedBytes;
+            this.allocatedObjects = allocatedObjects;
+        }
+
+        public double getSyncsPerSecond() {
+            return elapsedMillis == 0 ? 0 : syncs * 1000d / elapsedMillis;
+        }
+
+        public long getAllocatedBytesPerSync() {
+            return syncs == 0 ? 0 : allocatedBytes / syncs;
+        }
+
+        public int getAllocatedObjectsPerSync() {
+            return syncs == 0 ? 0 : allocatedObjects / syncs;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d syncs in %d ms (%.1f syncs/s), %d bytes / %d objects allocated per sync",
+                    syncs, elapsedMillis, getSyncsPerSecond(),
+                    getAllocatedBytesPerSync(), getAllocatedObjectsPerSync());
+        }
+    }
+
+    public ResponseReplayer(Context context, ResponseArchive archive) {
+        mContext = context;
+        mArchive = archive;
+    }
+
+    /**
+     * Replays every capture in the archive {@code iterations} times. Captures are decoded before
+     * the measurement starts so that only parsing and persisting are accounted for.
+     *
+     * @param iterations number of passes over the archive
+     * @return the throughput and allocation report, also written to the log.
+     */
+    @SuppressWarnings("deprecation")
+    public Report replay(int iterations) {
+        File[] captures = mArchive.listCaptures();
+        String[] bodies = new String[captures.length];
+        String[] locations = new String[captures.length];
+        for (int i = 0; i < captures.length; i++) {
+            try {
+                bodies[i] = ResponseArchive.readBody(captures[i]);
+                locations[i] = ResponseArchive.readHeader(captures[i], ResponseArchive.HEADER_LOCATION);
+            } catch (IOException e) {
+                Log.e(LOG_TAG, "Skipping unreadable capture " + captures[i], e);
+            }
+        }
+
+        SunshineSyncAdapter syncAdapter = new SunshineSyncAdapter(mContext, false);
+
+        int syncs = 0;
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+        long start = SystemClock.elapsedRealtime();
+        try {
+            for (int iteration = 0; iteration < iterations; iteration++) {
+                for (int i = 0; i < bodies.length; i++) {
+                    if (bodies[i] == null) {
+                        continue;
+                    }
+                    syncAdapter.getWeatherDataFromJson(bodies[i], locations[i], false);
+                    syncs++;
+                }
+            }
+        } catch (JSONException e) {
+            Log.e(LOG_TAG, "Replay aborted", e);
+        } finally {
+            Debug.stopAllocCounting();
+        }
+        long elapsed = SystemClock.elapsedRealtime() - start;
+
+        Report report = new Report(syncs, elapsed, Debug.getThreadAllocSize(), Debug.getThreadAllocCount());
+        Log.i(LOG_TAG, "Replay: " + report);
+        return report;
+    }
+}
@@ -2,9 +2,6 @@ package com.example.android.sunshine.app.sync;
 
 import android.accounts.Account;
 import android.accounts.AccountManager;
-import android.annotation.SuppressLint;
-import android.app.NotificationManager;
-import android.app.PendingIntent;
 import android.content.AbstractThreadedSyncAdapter;
 import android.content.ContentProviderClient;
 import android.content.ContentResolver;
@@ -15,36 +12,24 @@ import android.content.Intent;
 import android.content.SharedPreferences;
 import android.content.SyncRequest;
 import android.content.SyncResult;
-import android.content.res.Resources;
 import android.database.Cursor;
-import android.graphics.Bitmap;
-import android.graphics.BitmapFactory;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.preference.PreferenceManager;
 import android.support.annotation.IntDef;
-import android.support.annotation.NonNull;
-import android.support.annotation.Nullable;
-import android.support.v4.app.NotificationCompat;
-import android.support.v4.app.TaskStackBuilder;
 import android.text.format.Time;
 import android.util.Log;
 
-import com.bumptech.glide.Glide;
 import com.example.android.sunshine.app.BuildConfig;
-import com.example.android.sunshine.app.MainActivity;
 import com.example.android.sunshine.app.R;
+import com.example.android.sunshine.app.SettingsSnapshot;
 import com.example.android.sunshine.app.Utility;
+import com.example.android.sunshine.app.art.ArtPackPrefetchService;
 import com.example.android.sunshine.app.data.WeatherContract;
 import com.example.android.sunshine.app.muzei.WeatherMuzeiSource;
-import com.google.android.gms.common.ConnectionResult;
-import com.google.android.gms.common.api.GoogleApiClient;
-import com.google.android.gms.common.api.ResultCallback;
-import com.google.android.gms.wearable.DataApi;
-import com.google.android.gms.wearable.PutDataMapRequest;
-import com.google.android.gms.wearable.PutDataRequest;
-import com.google.android.gms.wearable.Wearable;
+import com.example.android.sunshine.app.wearable.WearablePublishIntentService;
 
 import org.json.JSONArray;
 import org.json.JSONException;
@@ -58,12 +43,9 @@ import java.lang.annotation.Retention;
 import java.lang.annotation.RetentionPolicy;
 import java.net.HttpURLConnection;
 import java.net.URL;
-import java.util.UUID;
 import java.util.Vector;
-import java.util.concurrent.ExecutionException;
 
-public class SunshineSyncAdapter extends AbstractThreadedSyncAdapter implements GoogleApiClient.ConnectionCallbacks, GoogleApiClient.OnConnectionFailedListener {
-    public static final String sKeyTimestamp = "timestamp";
+public class SunshineSyncAdapter extends AbstractThreadedSyncAdapter {
     public final String LOG_TAG = SunshineSyncAdapter.class.getSimpleName();
     public static final String ACTION_DATA_UPDATED =
             "com.example.android.sunshine.app.ACTION_DATA_UPDATED";
@@ -71,17 +53,6 @@ public class SunshineSyncAdapter extends AbstractThreadedSyncAdapter implements
     // 60 seconds (1 minute) * 180 = 3 hours
     public static final int SYNC_INTERVAL = 60 * 180;
     public static final int SYNC_FLEXTIME = SYNC_INTERVAL / 3;
-    private static final long sDayInMillis = 1000 * 60 * 60 * 24;
-    private static final int sWeatherNotificationId = 3004;
-
-
-    // WEARABLE DATA
-    private static final String sCurrentWeatherPath = "/current-weather";
-    private static final String sKeyUuid = "uuid";
-    private static final String sKeyHighTemperature = "high_temperature";
-    private static final String sKeyLowTemperature = "low_temperature";
-    private static final String sKeyWeatherId = "weather_id";
-
 
     private static final String[] NOTIFY_WEATHER_PROJECTION = new String[]{
             WeatherContract.WeatherEntry.COLUMN_WEATHER_ID,
@@ -107,18 +78,8 @@ public class SunshineSyncAdapter extends AbstractThreadedSyncAdapter implements
     public static final int LOCATION_STATUS_UNKNOWN = 3;
     public static final int LOCATION_STATUS_INVALID = 4;
 
-    private GoogleApiClient mGoogleApiClient;
-
     public SunshineSyncAdapter(Context context, boolean autoInitialize) {
         super(context, autoInitialize);
-
-        if (mGoogleApiClient == null) {
-            mGoogleApiClient = new GoogleApiClient.Builder(context)
-                    .addConnectionCallbacks(this)
-                    .addOnConnectionFailedListener(this)
-                    .addApi(Wearable.API)
-                    .build();
-        }
     }
 
     @Override
@@ -161,9 +122,11 @@ public class SunshineSyncAdapter extends AbstractThreadedSyncAdapter implements
             URL url = new URL(builtUri.toString());
 
             // Create the request to OpenWeatherMap, and open the connection
+            long connectStart = SystemClock.elapsedRealtime();
             urlConnection = (HttpURLConnection) url.openConnection();
             urlConnection.setRequestMethod("GET");
             urlConnection.connect();
+            long readStart = SystemClock.elapsedRealtime();
 
             // Read the input stream into a String
             InputStream inputStream = urlConnection.getInputStream();
@@ -188,7 +151,15 @@ public class SunshineSyncAdapter extends AbstractThreadedSyncAdapter implements
                 return;
             }
             forecastJsonStr = buffer.toString();
-            getWeatherDataFromJson(forecastJsonStr, locationQuery);
+
+            if (BuildConfig.CAPTURE_OWM_RESPONSES) {
+                long readEnd = SystemClock.elapsedRealtime();
+                ResponseArchive.forContext(getContext()).capture(url.toString(), locationQuery,
+                        urlConnection.getResponseCode(), urlConnection.getHeaderFields(),
+                        readStart - connectStart, readEnd - readStart, forecastJsonStr);
+            }
+
+            getWeatherDataFromJson(forecastJsonStr, locationQuery, true);
         } catch (IOException e) {
             Log.e(LOG_TAG, "Error ", e);
             // If the code didn't successfully get the weather data, there's no point in attempting
@@ -219,9 +190,14 @@ public class SunshineSyncAdapter extends AbstractThreadedSyncAdapter implements
      * <p/>
      * Fortunately parsing is easy:  constructor takes the JSON string and converts it
      * into an Object hierarchy for us.
+     *
+     * @param publish whether the new data should be pushed to widgets, Muzei, the wearable and
+     *                the notification. {@link ResponseReplayer} disables it when replaying
+     *                archived responses.
      */
-    private void getWeatherDataFromJson(String forecastJsonStr,
-                                        String locationSetting)
+    void getWeatherDataFromJson(String forecastJsonStr,
+                                String locationSetting,
+                                boolean publish)
             throws JSONException {
 
         // Now we have a String representing the complete forecast in JSON Format.
@@ -359,11 +335,6 @@ public class SunshineSyncAdapter extends AbstractThreadedSyncAdapter implements
                 weatherValues.put(WeatherContract.WeatherEntry.COLUMN_SHORT_DESC, description);
                 weatherValues.put(WeatherContract.WeatherEntry.COLUMN_WEATHER_ID, weatherId);
 
-                boolean isCurrentDay = (0 == i);
-                if (isCurrentDay) {
-                    sendWeatherDataToWearableDevice(weatherId, high, low);
-                }
-
                 cVVector.add(weatherValues);
             }
 
@@ -378,9 +349,15 @@ public class SunshineSyncAdapter extends AbstractThreadedSyncAdapter implements
                         WeatherContract.WeatherEntry.COLUMN_DATE + " <= ?",
                         new String[]{Long.toString(dayTime.setJulianDay(julianStartDay - 1))});
 
-                updateWidgets();
-                updateMuzei();
-                notifyWeather();
+                if (publish) {
+                    setLastSync(getContext(), System.currentTimeMillis());
+
+                    updateWidgets();
+                    updateMuzei();
+                    updateWearable();
+                    notifyWeather();
+                    prefetchArt();
+                }
             }
             Log.d(LOG_TAG, "Sync Complete. " + cVVector.size() + " Inserted");
             setLocationStatus(getContext(), LOCATION_STATUS_OK);
@@ -392,45 +369,6 @@ public class SunshineSyncAdapter extends AbstractThreadedSyncAdapter implements
         }
     }
 
-    private void sendWeatherDataToWearableDevice(int weatherId, double highTemperature, double lowTemperature) {
-        Log.d(LOG_TAG, "Sending weather data to device.");
-        Log.d(LOG_TAG, String.format("High temperature: %s, Low temperature: %s, weatherId: %s", highTemperature, lowTemperature, weatherId));
-
-        if (mGoogleApiClient == null) {
-            Log.w(LOG_TAG, "mGoogleApiClient is null. Weather data will not be sent to device.");
-            return;
-        }
-
-        mGoogleApiClient.connect();
-
-        Log.d(LOG_TAG, "isConnected: " + mGoogleApiClient.isConnected());
-
-        PutDataMapRequest putDataMapRequest = PutDataMapRequest.create(sCurrentWeatherPath).setUrgent();
-        putDataMapRequest.getDataMap().putString(sKeyUuid, UUID.randomUUID().toString());
-        putDataMapRequest.getDataMap().putInt(sKeyWeatherId, weatherId);
-        putDataMapRequest.getDataMap().putString(sKeyHighTemperature, Utility.formatTemperature(getContext(), highTemperature));
-        putDataMapRequest.getDataMap().putString(sKeyLowTemperature, Utility.formatTemperature(getContext(), lowTemperature));
-        putDataMapRequest.getDataMap().putString(sKeyTimestamp, String.valueOf(System.currentTimeMillis()));
-
-        Log.d(LOG_TAG, "putDataMapRequest: " + putDataMapRequest);
-        Log.d(LOG_TAG, "putDataMapRequest.getDataMap(): " + putDataMapRequest.getDataMap());
-
-        PutDataRequest request = putDataMapRequest.asPutDataRequest();
-
-        Wearable.DataApi.putDataItem(mGoogleApiClient, request)
-                .setResultCallback(new ResultCallback<DataApi.DataItemResult>() {
-                    @Override
-                    public void onResult(DataApi.DataItemResult dataItemResult) {
-                        if (dataItemResult.getStatus().isSuccess()) {
-                            Log.d(LOG_TAG, "Weather data successfully sent to device.");
-
-                        } else {
-                            Log.d(LOG_TAG, "Failed to send weather data to device.");
-                        }
-                    }
-                });
-    }
-
     private void updateWidgets() {
         Context context = getContext();
         // Setting the package ensures that only components in our app will receive the broadcast
@@ -449,110 +387,37 @@ public class SunshineSyncAdapter extends AbstractThreadedSyncAdapter implements
         }
     }
 
+    private void updateWearable() {
+        WearablePublishIntentService.startPublish(getContext());
+    }
+
+    private void prefetchArt() {
+        // Retries a prefetch that was skipped on a metered network or interrupted.
+        ArtPackPrefetchService.startPrefetch(getContext());
+    }
+
     private void notifyWeather() {
         Context context = getContext();
         //checking the last update and notify if it' the first of the day
-        SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(context);
-        String displayNotificationsKey = context.getString(R.string.pref_enable_notifications_key);
-        boolean displayNotifications = prefs.getBoolean(displayNotificationsKey,
-                Boolean.parseBoolean(context.getString(R.string.pref_enable_notifications_default)));
-
-        if (displayNotifications) {
-
-            String lastNotificationKey = context.getString(R.string.pref_last_notification);
-            long lastSync = prefs.getLong(lastNotificationKey, 0);
-
-            if (System.currentTimeMillis() - lastSync >= sDayInMillis) {
-                // Last sync was more than 1 day ago, let's send a notification with the weather.
-                String locationQuery = Utility.getPreferredLocation(context);
-
-                Uri weatherUri = WeatherContract.WeatherEntry.buildWeatherLocationWithDate(locationQuery, System.currentTimeMillis());
-
-                // we'll query our contentProvider, as always
-                Cursor cursor = context.getContentResolver().query(weatherUri, NOTIFY_WEATHER_PROJECTION, null, null, null);
-
-                if (cursor.moveToFirst()) {
-                    int weatherId = cursor.getInt(INDEX_WEATHER_ID);
-                    double high = cursor.getDouble(INDEX_MAX_TEMP);
-                    double low = cursor.getDouble(INDEX_MIN_TEMP);
-                    String desc = cursor.getString(INDEX_SHORT_DESC);
-
-                    int iconId = Utility.getIconResourceForWeatherCondition(weatherId);
-                    Resources resources = context.getResources();
-                    int artResourceId = Utility.getArtResourceForWeatherCondition(weatherId);
-                    String artUrl = Utility.getArtUrlForWeatherCondition(context, weatherId);
-
-                    // On Honeycomb and higher devices, we can retrieve the size of the large icon
-                    // Prior to that, we use a fixed size
-                    @SuppressLint("InlinedApi")
-                    int largeIconWidth = Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB
-                            ? resources.getDimensionPixelSize(android.R.dimen.notification_large_icon_width)
-                            : resources.getDimensionPixelSize(R.dimen.notification_large_icon_default);
-                    @SuppressLint("InlinedApi")
-                    int largeIconHeight = Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB
-                            ? resources.getDimensionPixelSize(android.R.dimen.notification_large_icon_height)
-                            : resources.getDimensionPixelSize(R.dimen.notification_large_icon_default);
-
-                    // Retrieve the large icon
-                    Bitmap largeIcon;
-                    try {
-                        largeIcon = Glide.with(context)
-                                .load(artUrl)
-                                .asBitmap()
-                                .error(artResourceId)
-                                .fitCenter()
-                                .into(largeIconWidth, largeIconHeight).get();
-                    } catch (InterruptedException | ExecutionException e) {
-                        Log.e(LOG_TAG, "Error retrieving large icon from " + artUrl, e);
-                        largeIcon = BitmapFactory.decodeResource(resources, artResourceId);
-                    }
-                    String title = context.getString(R.string.app_name);
-
-                    // Define the text of the forecast.
-                    String contentText = String.format(context.getString(R.string.format_notification),
-                            desc,
-                            Utility.formatTemperature(context, high),
-                            Utility.formatTemperature(context, low));
-
-                    // NotificationCompatBuilder is a very convenient way to build backward-compatible
-                    // notifications.  Just throw in some data.
-                    NotificationCompat.Builder mBuilder =
-                            new NotificationCompat.Builder(getContext())
-                                    .setColor(resources.getColor(R.color.primary_light))
-                                    .setSmallIcon(iconId)
-                                    .setLargeIcon(largeIcon)
-                                    .setContentTitle(title)
-                                    .setContentText(contentText);
-
-                    // Make something interesting happen when the user clicks on the notification.
-                    // In this case, opening the app is sufficient.
-                    Intent resultIntent = new Intent(context, MainActivity.class);
-
-                    // The stack builder object will contain an artificial back stack for the
-                    // started Activity.
-                    // This ensures that navigating backward from the Activity leads out of
-                    // your application to the Home screen.
-                    TaskStackBuilder stackBuilder = TaskStackBuilder.create(context);
-                    stackBuilder.addNextIntent(resultIntent);
-                    PendingIntent resultPendingIntent =
-                            stackBuilder.getPendingIntent(
-                                    0,
-                                    PendingIntent.FLAG_UPDATE_CURRENT
-                            );
-                    mBuilder.setContentIntent(resultPendingIntent);
-
-                    NotificationManager mNotificationManager =
-                            (NotificationManager) getContext().getSystemService(Context.NOTIFICATION_SERVICE);
-                    // sWeatherNotificationId allows you to update the notification later on.
-                    mNotificationManager.notify(sWeatherNotificationId, mBuilder.build());
-
-                    //refreshing last sync
-                    SharedPreferences.Editor editor = prefs.edit();
-                    editor.putLong(lastNotificationKey, System.currentTimeMillis());
-                    editor.commit();
-                }
-                cursor.close();
+        if (SettingsSnapshot.get(context).notificationsEnabled
+                && WeatherNotificationIntentService.isNotificationDue(context)) {
+            String locationQuery = Utility.getPreferredLocation(context);
+
+            Uri weatherUri = WeatherContract.WeatherEntry.buildWeatherLocationWithDate(locationQuery, System.currentTimeMillis());
+
+            // we'll query our contentProvider, as always
+            Cursor cursor = context.getContentResolver().query(weatherUri, NOTIFY_WEATHER_PROJECTION, null, null, null);
+
+            if (cursor.moveToFirst()) {
+                int weatherId = cursor.getInt(INDEX_WEATHER_ID);
+                double high = cursor.getDouble(INDEX_MAX_TEMP);
+                double low = cursor.getDouble(INDEX_MIN_TEMP);
+                String desc = cursor.getString(INDEX_SHORT_DESC);
+
+                // Loading the large icon can hit the network, so leave it to the service.
+                WeatherNotificationIntentService.startNotify(context, weatherId, high, low, desc);
             }
+            cursor.close();
         }
     }
 
@@ -712,18 +577,17 @@ public class SunshineSyncAdapter extends AbstractThreadedSyncAdapter implements
         spe.commit();
     }
 
-    @Override
-    public void onConnected(@Nullable Bundle bundle) {
-        Log.d(LOG_TAG, "onConnected");
-    }
-
-    @Override
-    public void onConnectionSuspended(int cause) {
-        Log.d(LOG_TAG, "onConnectionSuspended - cause: " + cause);
-    }
-
-    @Override
-    public void onConnectionFailed(@NonNull ConnectionResult connectionResult) {
-        Log.d(LOG_TAG, "onConnectionFailed - connectionResult: " + connectionResult);
+    /**
+     * Records when the forecast was last successfully fetched, so it can be reported to the
+     * wearable along with the data.
+     *
+     * @param c        Context to get the PreferenceManager from.
+     * @param syncedAt The time of the sync, in milliseconds
+     */
+    static private void setLastSync(Context c, long syncedAt) {
+        SharedPreferences sp = PreferenceManager.getDefaultSharedPreferences(c);
+        SharedPreferences.Editor spe = sp.edit();
+        spe.putLong(c.getString(R.string.pref_last_sync), syncedAt);
+        spe.commit();
     }
 }
\ No newline at end of file
@@ -0,0 +1,223 @@
+package com.example.android.sunshine.app.sync;
+
+import android.annotation.SuppressLint;
+import android.app.IntentService;
+import android.app.NotificationManager;
+import android.app.PendingIntent;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.os.Build;
+import android.os.SystemClock;
+import android.preference.PreferenceManager;
+import android.support.v4.app.NotificationCompat;
+import android.support.v4.app.TaskStackBuilder;
+import android.support.v4.util.LruCache;
+import android.util.Log;
+
+import com.bumptech.glide.Glide;
+import com.example.android.sunshine.app.MainActivity;
+import com.example.android.sunshine.app.R;
+import com.example.android.sunshine.app.Utility;
+import com.example.android.sunshine.app.art.ArtPackCache;
+
+import java.util.concurrent.ExecutionException;
+
+/**
+ * IntentService which builds and posts the daily weather notification, so that loading the large
+ * icon doesn't hold up the sync that triggered it, and the process stays alive until the
+ * notification is posted. Large icons are kept, already scaled to the notification's large icon
+ * size, for the few conditions recently notified.
+ */
+public class WeatherNotificationIntentService extends IntentService {
+    private static final String LOG_TAG = WeatherNotificationIntentService.class.getSimpleName();
+
+    private static final String EXTRA_WEATHER_ID = "weather_id";
+    private static final String EXTRA_HIGH = "high";
+    private static final String EXTRA_LOW = "low";
+    private static final String EXTRA_DESCRIPTION = "description";
+    private static final String EXTRA_REQUESTED_AT = "requested_at";
+
+    private static final long sDayInMillis = 1000 * 60 * 60 * 24;
+    private static final int sWeatherNotificationId = 3004;
+    // The forecast rarely goes through more than a few conditions in a row of days.
+    private static final int sMaxCachedIcons = 4;
+
+    // Only used on the service's worker thread.
+    private static final LruCache<String, Bitmap> sLargeIcons =
+            new LruCache<>(sMaxCachedIcons);
+
+    public WeatherNotificationIntentService() {
+        super("WeatherNotificationIntentService");
+    }
+
+    /**
+     * Posts the notification for today's weather once the large icon is loaded, unless one was
+     * already posted in the last day.
+     */
+    static void startNotify(Context context, int weatherId, double high, double low,
+                            String description) {
+        context.startService(new Intent(context, WeatherNotificationIntentService.class)
+                .putExtra(EXTRA_WEATHER_ID, weatherId)
+                .putExtra(EXTRA_HIGH, high)
+                .putExtra(EXTRA_LOW, low)
+                .putExtra(EXTRA_DESCRIPTION, description)
+                .putExtra(EXTRA_REQUESTED_AT, SystemClock.elapsedRealtime()));
+    }
+
+    /**
+     * @return true if the last weather notification was posted a day or more ago.
+     */
+    static boolean isNotificationDue(Context context) {
+        SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(context);
+        long lastNotification = prefs.getLong(context.getString(R.string.pref_last_notification), 0);
+        return System.currentTimeMillis() - lastNotification >= sDayInMillis;
+    }
+
+    @Override
+    protected void onHandleIntent(Intent intent) {
+        // Syncs close together may have queued more than one notification.
+        if (!isNotificationDue(this)) {
+            return;
+        }
+        int weatherId = intent.getIntExtra(EXTRA_WEATHER_ID, 0);
+        long requestedAt = intent.getLongExtra(EXTRA_REQUESTED_AT, 0);
+
+        long start = SystemClock.elapsedRealtime();
+        Bitmap largeIcon = getLargeIcon(this, weatherId);
+        long iconLoaded = SystemClock.elapsedRealtime();
+        postNotification(this, weatherId, intent.getDoubleExtra(EXTRA_HIGH, 0),
+                intent.getDoubleExtra(EXTRA_LOW, 0), intent.getStringExtra(EXTRA_DESCRIPTION),
+                largeIcon);
+        long end = SystemClock.elapsedRealtime();
+
+        // Only recorded once posted, so a notification lost with the process is retried by the
+        // next sync.
+        PreferenceManager.getDefaultSharedPreferences(this).edit()
+                .putLong(getString(R.string.pref_last_notification), System.currentTimeMillis())
+                .commit();
+
+        Log.d(LOG_TAG, "Notification posted " + (end - requestedAt) + " ms after the sync, "
+                + "queued " + (start - requestedAt) + " ms, large icon "
+                + (iconLoaded - start) + " ms, build " + (end - iconLoaded) + " ms; "
+                + "icons " + sLargeIcons);
+    }
+
+    private static Bitmap getLargeIcon(Context context, int weatherId) {
+        String artUrl = Utility.usingLocalGraphics(context)
+                ? null
+                : ArtPackCache.getArtUrl(context, weatherId, ArtPackCache.SIZE_NOTIFICATION);
+        int artResourceId = Utility.getArtResourceForWeatherCondition(weatherId);
+        String key = artUrl != null ? artUrl : "resource:" + artResourceId;
+        Bitmap largeIcon = sLargeIcons.get(key);
+        if (largeIcon != null) {
+            return largeIcon;
+        }
+
+        Resources resources = context.getResources();
+        // On Honeycomb and higher devices, we can retrieve the size of the large icon
+        // Prior to that, we use a fixed size
+        @SuppressLint("InlinedApi")
+        int largeIconWidth = Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB
+                ? resources.getDimensionPixelSize(android.R.dimen.notification_large_icon_width)
+                : resources.getDimensionPixelSize(R.dimen.notification_large_icon_default);
+        @SuppressLint("InlinedApi")
+        int largeIconHeight = Build.VERSION.SDK_INT >= Build.VERSION_CODES.HONEYCOMB
+                ? resources.getDimensionPixelSize(android.R.dimen.notification_large_icon_height)
+                : resources.getDimensionPixelSize(R.dimen.notification_large_icon_default);
+
+        if (artUrl != null) {
+            try {
+                largeIcon = Glide.with(context)
+                        .load(artUrl)
+                        .asBitmap()
+                        .fitCenter()
+                        .into(largeIconWidth, largeIconHeight).get();
+            } catch (InterruptedException | ExecutionException e) {
+                Log.e(LOG_TAG, "Error retrieving large icon from " + artUrl, e);
+                // Not cached, so the art is retried next time.
+                return decodeResource(resources, artResourceId, largeIconWidth, largeIconHeight);
+            }
+        } else {
+            largeIcon = decodeResource(resources, artResourceId, largeIconWidth, largeIconHeight);
+        }
+        sLargeIcons.put(key, largeIcon);
+        return largeIcon;
+    }
+
+    /**
+     * Decodes a drawable resource subsampled close to {@code width} by {@code height} and scaled
+     * to fit, rather than at the full resolution of the density bucket it comes from.
+     */
+    private static Bitmap decodeResource(Resources resources, int resId, int width, int height) {
+        BitmapFactory.Options options = new BitmapFactory.Options();
+        options.inJustDecodeBounds = true;
+        BitmapFactory.decodeResource(resources, resId, options);
+        int sampleSize = 1;
+        while (options.outWidth / (sampleSize * 2) >= width
+                && options.outHeight / (sampleSize * 2) >= height) {
+            sampleSize *= 2;
+        }
+        options.inJustDecodeBounds = false;
+        options.inSampleSize = sampleSize;
+        Bitmap bitmap = BitmapFactory.decodeResource(resources, resId, options);
+        if (bitmap == null || (bitmap.getWidth() <= width && bitmap.getHeight() <= height)) {
+            return bitmap;
+        }
+        float scale = Math.min((float) width / bitmap.getWidth(), (float) height / bitmap.getHeight());
+        Bitmap scaled = Bitmap.createScaledBitmap(bitmap, Math.round(bitmap.getWidth() * scale),
+                Math.round(bitmap.getHeight() * scale), true);
+        if (scaled != bitmap) {
+            bitmap.recycle();
+        }
+        return scaled;
+    }
+
+    private static void postNotification(Context context, int weatherId, double high, double low,
+                                         String description, Bitmap largeIcon) {
+        Resources resources = context.getResources();
+        int iconId = Utility.getIconResourceForWeatherCondition(weatherId);
+        String title = context.getString(R.string.app_name);
+
+        // Define the text of the forecast.
+        String contentText = String.format(context.getString(R.string.format_notification),
+                description,
+                Utility.formatTemperature(context, high),
+                Utility.formatTemperature(context, low));
+
+        // NotificationCompatBuilder is a very convenient way to build backward-compatible
+        // notifications.  Just throw in some data.
+        NotificationCompat.Builder mBuilder =
+                new NotificationCompat.Builder(context)
+                        .setColor(resources.getColor(R.color.primary_light))
+                        .setSmallIcon(iconId)
+                        .setLargeIcon(largeIcon)
+                        .setContentTitle(title)
+                        .setContentText(contentText);
+
+        // Make something interesting happen when the user clicks on the notification.
+        // In this case, opening the app is sufficient.
+        Intent resultIntent = new Intent(context, MainActivity.class);
+
+        // The stack builder object will contain an artificial back stack for the
+        // started Activity.
+        // This ensures that navigating backward from the Activity leads out of
+        // your application to the Home screen.
+        TaskStackBuilder stackBuilder = TaskStackBuilder.create(context);
+        stackBuilder.addNextIntent(resultIntent);
+        PendingIntent resultPendingIntent =
+                stackBuilder.getPendingIntent(
+                        0,
+                        PendingIntent.FLAG_UPDATE_CURRENT
+                );
+        mBuilder.setContentIntent(resultPendingIntent);
+
+        NotificationManager mNotificationManager =
+                (NotificationManager) context.getSystemService(Context.NOTIFICATION_SERVICE);
+        // sWeatherNotificationId allows you to update the notification later on.
+        mNotificationManager.notify(sWeatherNotificationId, mBuilder.build());
+    }
+}
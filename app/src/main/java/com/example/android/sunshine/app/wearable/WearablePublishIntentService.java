@@ -0,0 +1,210 @@
+package com.example.android.sunshine.app.wearable;
+
+import android.app.IntentService;
+import android.content.Context;
+import android.content.Intent;
+import android.content.SharedPreferences;
+import android.database.Cursor;
+import android.net.Uri;
+import android.preference.PreferenceManager;
+import android.util.Base64;
+import android.util.Log;
+
+import com.example.android.sunshine.app.R;
+import com.example.android.sunshine.app.Utility;
+import com.example.android.sunshine.app.data.WeatherContract;
+import com.example.android.sunshine.common.ForecastDay;
+import com.example.android.sunshine.common.WeatherPayload;
+import com.google.android.gms.common.ConnectionResult;
+import com.google.android.gms.common.api.GoogleApiClient;
+import com.google.android.gms.wearable.DataApi;
+import com.google.android.gms.wearable.DataMap;
+import com.google.android.gms.wearable.PutDataRequest;
+import com.google.android.gms.wearable.Wearable;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * IntentService which publishes the forecast stored in the ContentProvider to the wearable:
+ * today's weather as a {@link WeatherPayload} DataItem, and the following days as one
+ * {@link ForecastDay} DataItem each. It doesn't hit the network, so it is also used to republish
+ * when only the unit preference changes.
+ */
+public class WearablePublishIntentService extends IntentService {
+    private static final String LOG_TAG = WearablePublishIntentService.class.getSimpleName();
+
+    private static final long sConnectionTimeoutSeconds = 30;
+    private static final String sForecastPreferences = "wearable_forecast";
+
+    private static final String[] FORECAST_COLUMNS = {
+            WeatherContract.WeatherEntry.COLUMN_DATE,
+            WeatherContract.WeatherEntry.COLUMN_WEATHER_ID,
+            WeatherContract.WeatherEntry.COLUMN_MAX_TEMP,
+            WeatherContract.WeatherEntry.COLUMN_MIN_TEMP
+    };
+    // these indices must match the projection
+    private static final int INDEX_DATE = 0;
+    private static final int INDEX_WEATHER_ID = 1;
+    private static final int INDEX_MAX_TEMP = 2;
+    private static final int INDEX_MIN_TEMP = 3;
+
+    public WearablePublishIntentService() {
+        super("WearablePublishIntentService");
+    }
+
+    public static void startPublish(Context context) {
+        context.startService(new Intent(context, WearablePublishIntentService.class));
+    }
+
+    @Override
+    protected void onHandleIntent(Intent intent) {
+        ForecastDay[] days = loadForecast();
+        if (days == null) {
+            Log.d(LOG_TAG, "No weather data to publish.");
+            return;
+        }
+
+        GoogleApiClient googleApiClient = new GoogleApiClient.Builder(this)
+                .addApi(Wearable.API)
+                .build();
+        ConnectionResult connectionResult =
+                googleApiClient.blockingConnect(sConnectionTimeoutSeconds, TimeUnit.SECONDS);
+        if (!connectionResult.isSuccess()) {
+            Log.d(LOG_TAG, "Unable to connect to GoogleApiClient: " + connectionResult);
+            return;
+        }
+
+        try {
+            publishCurrentWeather(googleApiClient, days[0]);
+            publishForecastDays(googleApiClient, days);
+        } finally {
+            googleApiClient.disconnect();
+        }
+    }
+
+    /**
+     * Publishes today's weather along with the sync metadata and the unit preference. This item
+     * changes on every publish, which is how the watch learns about new syncs.
+     */
+    private void publishCurrentWeather(GoogleApiClient googleApiClient, ForecastDay today) {
+        SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(this);
+        long syncedAt = prefs.getLong(getString(R.string.pref_last_sync), 0);
+
+        WeatherPayload payload = new WeatherPayload(Utility.isMetric(this), syncedAt,
+                System.currentTimeMillis(), today.date, new int[]{today.weatherId},
+                new double[]{today.high}, new double[]{today.low});
+        byte[] data = payload.toByteArray();
+        logPayloadSize(payload, data);
+
+        PutDataRequest request = PutDataRequest.create(WeatherPayload.PATH)
+                .setData(data)
+                .setUrgent();
+        DataApi.DataItemResult result = Wearable.DataApi.putDataItem(googleApiClient, request)
+                .await(sConnectionTimeoutSeconds, TimeUnit.SECONDS);
+        if (result.getStatus().isSuccess()) {
+            Log.d(LOG_TAG, "Weather data successfully sent to device.");
+        } else {
+            Log.d(LOG_TAG, "Failed to send weather data to device.");
+        }
+    }
+
+    /**
+     * Publishes the days after today as one DataItem each, diffing against what was last sent
+     * (persisted in {@link #sForecastPreferences}) so that unchanged days aren't sent again and
+     * days that left the forecast window are deleted.
+     */
+    private void publishForecastDays(GoogleApiClient googleApiClient, ForecastDay[] days) {
+        SharedPreferences sent = getSharedPreferences(sForecastPreferences, MODE_PRIVATE);
+        SharedPreferences.Editor editor = sent.edit();
+
+        Set<String> stale = new HashSet<>(sent.getAll().keySet());
+        int published = 0;
+        int skipped = 0;
+        for (int i = 1; i < days.length; i++) {
+            ForecastDay day = days[i];
+            String key = String.valueOf(day.date);
+            stale.remove(key);
+
+            byte[] data = day.toByteArray();
+            String encoded = Base64.encodeToString(data, Base64.NO_WRAP);
+            if (encoded.equals(sent.getString(key, null))) {
+                skipped++;
+                continue;
+            }
+
+            PutDataRequest request = PutDataRequest.create(ForecastDay.pathFor(day.date)).setData(data);
+            DataApi.DataItemResult result = Wearable.DataApi.putDataItem(googleApiClient, request)
+                    .await(sConnectionTimeoutSeconds, TimeUnit.SECONDS);
+            if (result.getStatus().isSuccess()) {
+                editor.putString(key, encoded);
+                published++;
+            } else {
+                Log.d(LOG_TAG, "Failed to send forecast day " + key + " to device.");
+            }
+        }
+
+        for (String key : stale) {
+            Uri uri = new Uri.Builder()
+                    .scheme(PutDataRequest.WEAR_URI_SCHEME)
+                    .path(ForecastDay.pathFor(Long.parseLong(key)))
+                    .build();
+            Wearable.DataApi.deleteDataItems(googleApiClient, uri)
+                    .await(sConnectionTimeoutSeconds, TimeUnit.SECONDS);
+            editor.remove(key);
+        }
+        editor.apply();
+
+        Log.d(LOG_TAG, "Forecast days published: " + published + ", unchanged: " + skipped
+                + ", removed: " + stale.size());
+    }
+
+    private ForecastDay[] loadForecast() {
+        String location = Utility.getPreferredLocation(this);
+        Uri weatherForLocationUri = WeatherContract.WeatherEntry.buildWeatherLocationWithStartDate(
+                location, System.currentTimeMillis());
+        Cursor data = getContentResolver().query(weatherForLocationUri, FORECAST_COLUMNS, null,
+                null, WeatherContract.WeatherEntry.COLUMN_DATE + " ASC");
+        if (data == null) {
+            return null;
+        }
+
+        try {
+            int dayCount = Math.min(data.getCount(), WeatherPayload.MAX_DAYS);
+            if (dayCount == 0 || !data.moveToFirst()) {
+                return null;
+            }
+
+            ForecastDay[] days = new ForecastDay[dayCount];
+            for (int i = 0; i < dayCount; i++, data.moveToNext()) {
+                days[i] = new ForecastDay(data.getLong(INDEX_DATE), data.getInt(INDEX_WEATHER_ID),
+                        data.getDouble(INDEX_MAX_TEMP), data.getDouble(INDEX_MIN_TEMP));
+            }
+            return days;
+        } finally {
+            data.close();
+        }
+    }
+
+    /**
+     * Logs the size of the payload next to the size of the DataMap previously used to send only
+     * today's formatted temperatures.
+     */
+    private void logPayloadSize(WeatherPayload payload, byte[] data) {
+        if (!Log.isLoggable(LOG_TAG, Log.DEBUG)) {
+            return;
+        }
+
+        DataMap legacy = new DataMap();
+        legacy.putString("uuid", UUID.randomUUID().toString());
+        legacy.putInt("weather_id", payload.weatherIds[0]);
+        legacy.putString("high_temperature", Utility.formatTemperature(this, payload.highs[0]));
+        legacy.putString("low_temperature", Utility.formatTemperature(this, payload.lows[0]));
+        legacy.putString("timestamp", String.valueOf(payload.publishedAt));
+
+        Log.d(LOG_TAG, "Payload: " + data.length + " bytes for " + payload.getDayCount()
+                + " day(s), legacy DataMap: " + legacy.toByteArray().length + " bytes for 1 day");
+    }
+}
@@ -1,37 +1,55 @@
 package com.example.android.sunshine.app.wearable;
 
+import android.content.SharedPreferences;
+import android.preference.PreferenceManager;
 import android.util.Log;
 
+import com.example.android.sunshine.app.R;
 import com.example.android.sunshine.app.sync.SunshineSyncAdapter;
-import com.google.android.gms.wearable.DataEvent;
-import com.google.android.gms.wearable.DataEventBuffer;
+import com.example.android.sunshine.common.WeatherPayload;
+import com.google.android.gms.wearable.MessageEvent;
 import com.google.android.gms.wearable.WearableListenerService;
 
+import java.util.concurrent.TimeUnit;
+
 /**
  * Created by iluz on 4/10/16.
  */
 public class WearableWeatherService extends WearableListenerService {
     private static final String LOG_TAG = WearableWeatherService.class.getSimpleName();
 
-    private static final String sWeatherPath = "/weather";
+    private static final long sSyncIntervalMs = TimeUnit.SECONDS.toMillis(SunshineSyncAdapter.SYNC_INTERVAL);
 
-    @Override
-    public void onDataChanged(DataEventBuffer dataEvents) {
-        Log.d(LOG_TAG, "onDataChanged - dataEvents: " + dataEvents);
+    private static int sRequestsReceived;
+    private static int sRequestsAnswered;
 
-        if (null == dataEvents || dataEvents.getCount() == 0) {
+    /**
+     * Answers a {@link WeatherPayload#REQUEST_PATH} message from the watch. The watch sends the
+     * sync time of the data it already has: the forecast is only re-published if the phone has
+     * newer data, and a network sync is only requested if the phone's own data is out of date.
+     */
+    @Override
+    public void onMessageReceived(MessageEvent messageEvent) {
+        if (!WeatherPayload.REQUEST_PATH.equals(messageEvent.getPath())) {
             return;
         }
 
-        for (DataEvent dataEvent : dataEvents) {
-            if (dataEvent.getType() == DataEvent.TYPE_CHANGED) {
-                String path = dataEvent.getDataItem().getUri().getPath();
-                Log.d(LOG_TAG, "Path: " + path);
+        sRequestsReceived++;
+        long watchSyncedAt = WeatherPayload.decodeRequest(messageEvent.getData());
 
-                if (path.equals(sWeatherPath)) {
-                    SunshineSyncAdapter.syncImmediately(this);
-                }
-            }
+        SharedPreferences prefs = PreferenceManager.getDefaultSharedPreferences(this);
+        long lastSync = prefs.getLong(getString(R.string.pref_last_sync), 0);
+
+        if (System.currentTimeMillis() - lastSync >= sSyncIntervalMs) {
+            // Our own data is out of date, the sync publishes to the watch once it completes.
+            sRequestsAnswered++;
+            SunshineSyncAdapter.syncImmediately(this);
+        } else if (lastSync > watchSyncedAt) {
+            sRequestsAnswered++;
+            WearablePublishIntentService.startPublish(this);
         }
+
+        Log.d(LOG_TAG, "Weather requests from the watch: " + sRequestsReceived + " received, "
+                + sRequestsAnswered + " answered with data.");
     }
 }
@@ -12,14 +12,11 @@ import android.widget.AdapterView;
 import android.widget.RemoteViews;
 import android.widget.RemoteViewsService;
 
-import com.bumptech.glide.Glide;
-import com.bumptech.glide.request.target.Target;
 import com.example.android.sunshine.app.R;
 import com.example.android.sunshine.app.Utility;
+import com.example.android.sunshine.app.art.ArtPackCache;
 import com.example.android.sunshine.app.data.WeatherContract;
 
-import java.util.concurrent.ExecutionException;
-
 /**
  * RemoteViewsService controlling the data being shown in the scrollable weather detail widget
  */
@@ -46,14 +43,19 @@ public class DetailWidgetRemoteViewsService extends RemoteViewsService {
     public RemoteViewsFactory onGetViewFactory(Intent intent) {
         return new RemoteViewsFactory() {
             private Cursor data = null;
+            private int iconSize;
+            // Bitmap bytes sent to the widget host since the last refresh.
+            private int refreshBitmapBytes;
+            private int refreshBitmapRows;
 
             @Override
             public void onCreate() {
-                // Nothing to do
+                iconSize = getResources().getDimensionPixelSize(R.dimen.list_icon);
             }
 
             @Override
             public void onDataSetChanged() {
+                logRefresh();
                 if (data != null) {
                     data.close();
                 }
@@ -75,6 +77,7 @@ public class DetailWidgetRemoteViewsService extends RemoteViewsService {
 
             @Override
             public void onDestroy() {
+                logRefresh();
                 if (data != null) {
                     data.close();
                     data = null;
@@ -98,17 +101,10 @@ public class DetailWidgetRemoteViewsService extends RemoteViewsService {
                 int weatherArtResourceId = Utility.getIconResourceForWeatherCondition(weatherId);
                 Bitmap weatherArtImage = null;
                 if (!Utility.usingLocalGraphics(DetailWidgetRemoteViewsService.this)) {
-                    String weatherArtResourceUrl = Utility.getArtUrlForWeatherCondition(
-                            DetailWidgetRemoteViewsService.this, weatherId);
-                    try {
-                        weatherArtImage = Glide.with(DetailWidgetRemoteViewsService.this)
-                                .load(weatherArtResourceUrl)
-                                .asBitmap()
-                                .error(weatherArtResourceId)
-                                .into(Target.SIZE_ORIGINAL, Target.SIZE_ORIGINAL).get();
-                    } catch (InterruptedException | ExecutionException e) {
-                        Log.e(LOG_TAG, "Error retrieving large icon from " + weatherArtResourceUrl, e);
-                    }
+                    String weatherArtResourceUrl = ArtPackCache.getArtUrl(
+                            DetailWidgetRemoteViewsService.this, weatherId, ArtPackCache.SIZE_ICON);
+                    weatherArtImage = WidgetArtCache.getBitmap(DetailWidgetRemoteViewsService.this,
+                            weatherArtResourceUrl, iconSize);
                 }
                 String description = data.getString(INDEX_WEATHER_DESC);
                 long dateInMillis = data.getLong(INDEX_WEATHER_DATE);
@@ -122,6 +118,8 @@ public class DetailWidgetRemoteViewsService extends RemoteViewsService {
                         Utility.formatTemperature(DetailWidgetRemoteViewsService.this, minTemp);
                 if (weatherArtImage != null) {
                     views.setImageViewBitmap(R.id.widget_icon, weatherArtImage);
+                    refreshBitmapBytes += WidgetArtCache.getByteCount(weatherArtImage);
+                    refreshBitmapRows++;
                 } else {
                     views.setImageViewResource(R.id.widget_icon, weatherArtResourceId);
                 }
@@ -144,6 +142,15 @@ public class DetailWidgetRemoteViewsService extends RemoteViewsService {
                 return views;
             }
 
+            private void logRefresh() {
+                if (refreshBitmapRows > 0) {
+                    Log.d(LOG_TAG, "Sent " + refreshBitmapBytes + " bitmap bytes in "
+                            + refreshBitmapRows + " rows; cache " + WidgetArtCache.getStats());
+                }
+                refreshBitmapBytes = 0;
+                refreshBitmapRows = 0;
+            }
+
             @TargetApi(Build.VERSION_CODES.ICE_CREAM_SANDWICH_MR1)
             private void setRemoteContentDescription(RemoteViews views, String description) {
                 views.setContentDescription(R.id.widget_icon, description);
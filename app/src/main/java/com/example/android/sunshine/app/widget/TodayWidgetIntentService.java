@@ -20,12 +20,17 @@ import android.app.IntentService;
 import android.app.PendingIntent;
 import android.appwidget.AppWidgetManager;
 import android.content.ComponentName;
+import android.content.Context;
 import android.content.Intent;
 import android.database.Cursor;
 import android.net.Uri;
 import android.os.Build;
 import android.os.Bundle;
+import android.os.SystemClock;
 import android.util.DisplayMetrics;
+import android.util.Log;
+import android.util.SparseArray;
+import android.util.SparseIntArray;
 import android.util.TypedValue;
 import android.widget.RemoteViews;
 
@@ -34,10 +39,22 @@ import com.example.android.sunshine.app.R;
 import com.example.android.sunshine.app.Utility;
 import com.example.android.sunshine.app.data.WeatherContract;
 
+import java.util.Arrays;
+
 /**
- * IntentService which handles updating all Today widgets with the latest data
+ * IntentService which handles updating all Today widgets with the latest data.
+ * <p/>
+ * Requests arriving within {@link #sCoalesceMillis} of each other are handled once, and a widget
+ * is only updated when what it would show differs from what was last pushed to it.
  */
 public class TodayWidgetIntentService extends IntentService {
+    private static final String LOG_TAG = TodayWidgetIntentService.class.getSimpleName();
+
+    private static final String EXTRA_REQUESTED_AT = "requested_at";
+    // A sync sends its data update broadcast while the preferences the widget follows may still
+    // be changing, so give bursts of requests this long to settle.
+    private static final long sCoalesceMillis = 500;
+
     private static final String[] FORECAST_COLUMNS = {
             WeatherContract.WeatherEntry.COLUMN_WEATHER_ID,
             WeatherContract.WeatherEntry.COLUMN_SHORT_DESC,
@@ -50,16 +67,64 @@ public class TodayWidgetIntentService extends IntentService {
     private static final int INDEX_MAX_TEMP = 2;
     private static final int INDEX_MIN_TEMP = 3;
 
+    private static final Object sLock = new Object();
+    // Guarded by sLock.
+    private static long sLatestRequest;
+    private static boolean sForcePending;
+
+    // Only used on the service's worker thread, which handles one intent at a time.
+    // The content hash last pushed to each widget id.
+    private static SparseIntArray sPushedHashes = new SparseIntArray();
+    private static int sApplied;
+    private static int sSkipped;
+    private static int sCoalesced;
+
     public TodayWidgetIntentService() {
         super("TodayWidgetIntentService");
     }
 
+    /**
+     * Updates the Today widgets whose content changed.
+     *
+     * @param force update every widget even if its content is unchanged, for when the widget host
+     *              asks for an update.
+     */
+    public static void startUpdate(Context context, boolean force) {
+        long now = SystemClock.elapsedRealtime();
+        synchronized (sLock) {
+            sLatestRequest = now;
+            sForcePending |= force;
+        }
+        context.startService(new Intent(context, TodayWidgetIntentService.class)
+                .putExtra(EXTRA_REQUESTED_AT, now));
+    }
+
     @Override
     protected void onHandleIntent(Intent intent) {
+        long requestedAt = intent.getLongExtra(EXTRA_REQUESTED_AT, 0);
+        long wait = requestedAt + sCoalesceMillis - SystemClock.elapsedRealtime();
+        if (wait > 0) {
+            SystemClock.sleep(wait);
+        }
+        boolean force;
+        synchronized (sLock) {
+            if (requestedAt != sLatestRequest) {
+                // A later request is queued behind this one and will do the work.
+                sCoalesced++;
+                return;
+            }
+            force = sForcePending;
+            sForcePending = false;
+        }
+
         // Retrieve all of the Today widget ids: these are the widgets we need to update
         AppWidgetManager appWidgetManager = AppWidgetManager.getInstance(this);
         int[] appWidgetIds = appWidgetManager.getAppWidgetIds(new ComponentName(this,
                 TodayWidgetProvider.class));
+        if (appWidgetIds.length == 0) {
+            sPushedHashes.clear();
+            return;
+        }
 
         // Get today's data from the ContentProvider
         String location = Utility.getPreferredLocation(this);
@@ -85,12 +150,14 @@ public class TodayWidgetIntentService extends IntentService {
         String formattedMinTemperature = Utility.formatTemperature(this, minTemp);
         data.close();
 
-        // Perform this loop procedure for each Today widget
+        // Group the widgets that need an update by layout, which depends on the widget's width
+        int defaultWidth = getResources().getDimensionPixelSize(R.dimen.widget_today_default_width);
+        int largeWidth = getResources().getDimensionPixelSize(R.dimen.widget_today_large_width);
+        SparseIntArray pushedHashes = new SparseIntArray(appWidgetIds.length);
+        SparseArray<int[]> idsByLayout = new SparseArray<>(3);
+        int skipped = 0;
         for (int appWidgetId : appWidgetIds) {
-            // Find the correct layout based on the widget's width
             int widgetWidth = getWidgetWidth(appWidgetManager, appWidgetId);
-            int defaultWidth = getResources().getDimensionPixelSize(R.dimen.widget_today_default_width);
-            int largeWidth = getResources().getDimensionPixelSize(R.dimen.widget_today_large_width);
             int layoutId;
             if (widgetWidth >= largeWidth) {
                 layoutId = R.layout.widget_today_large;
@@ -99,7 +166,34 @@ public class TodayWidgetIntentService extends IntentService {
             } else {
                 layoutId = R.layout.widget_today_small;
             }
-            RemoteViews views = new RemoteViews(getPackageName(), layoutId);
+
+            // The content descriptions and click intent follow from these.
+            int hash = Arrays.hashCode(new Object[]{layoutId, weatherArtResourceId, description,
+                    formattedMaxTemperature, formattedMinTemperature});
+            pushedHashes.put(appWidgetId, hash);
+            if (!force && sPushedHashes.indexOfKey(appWidgetId) >= 0
+                    && sPushedHashes.get(appWidgetId) == hash) {
+                skipped++;
+                continue;
+            }
+
+            int[] ids = idsByLayout.get(layoutId);
+            if (ids == null) {
+                ids = new int[0];
+            }
+            ids = Arrays.copyOf(ids, ids.length + 1);
+            ids[ids.length - 1] = appWidgetId;
+            idsByLayout.put(layoutId, ids);
+        }
+        // Forget the widgets that were removed.
+        sPushedHashes = pushedHashes;
+
+        // Build the RemoteViews once per layout, shared by all its widgets
+        Intent launchIntent = new Intent(this, MainActivity.class);
+        PendingIntent pendingIntent = PendingIntent.getActivity(this, 0, launchIntent, 0);
+        int applied = 0;
+        for (int i = 0; i < idsByLayout.size(); i++) {
+            RemoteViews views = new RemoteViews(getPackageName(), idsByLayout.keyAt(i));
 
             // Add the data to the RemoteViews
             views.setImageViewResource(R.id.widget_icon, weatherArtResourceId);
@@ -111,14 +205,20 @@ public class TodayWidgetIntentService extends IntentService {
             views.setTextViewText(R.id.widget_high_temperature, formattedMaxTemperature);
             views.setTextViewText(R.id.widget_low_temperature, formattedMinTemperature);
 
-            // Create an Intent to launch MainActivity
-            Intent launchIntent = new Intent(this, MainActivity.class);
-            PendingIntent pendingIntent = PendingIntent.getActivity(this, 0, launchIntent, 0);
+            // Launch MainActivity on click
             views.setOnClickPendingIntent(R.id.widget, pendingIntent);
 
-            // Tell the AppWidgetManager to perform an update on the current app widget
-            appWidgetManager.updateAppWidget(appWidgetId, views);
+            // Tell the AppWidgetManager to perform an update on the app widgets
+            int[] ids = idsByLayout.valueAt(i);
+            appWidgetManager.updateAppWidget(ids, views);
+            applied += ids.length;
         }
+
+        sApplied += applied;
+        sSkipped += skipped;
+        Log.d(LOG_TAG, "Widgets updated: " + applied + ", unchanged: " + skipped
+                + (force ? " (forced)" : "") + "; since start: " + sApplied + " updated, "
+                + sSkipped + " unchanged, " + sCoalesced + " requests coalesced");
     }
 
     private int getWidgetWidth(AppWidgetManager appWidgetManager, int appWidgetId) {
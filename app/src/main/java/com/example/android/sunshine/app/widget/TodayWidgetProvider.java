@@ -34,20 +34,22 @@ public class TodayWidgetProvider extends AppWidgetProvider {
 
     @Override
     public void onUpdate(Context context, AppWidgetManager appWidgetManager, int[] appWidgetIds) {
-        context.startService(new Intent(context, TodayWidgetIntentService.class));
+        // New widgets and hosts that lost their views need the update even if nothing changed
+        TodayWidgetIntentService.startUpdate(context, true);
     }
 
     @Override
     public void onAppWidgetOptionsChanged(Context context, AppWidgetManager appWidgetManager,
                                           int appWidgetId, Bundle newOptions) {
-        context.startService(new Intent(context, TodayWidgetIntentService.class));
+        // Only updates the widget if its new size uses a different layout
+        TodayWidgetIntentService.startUpdate(context, false);
     }
 
     @Override
     public void onReceive(@NonNull Context context, @NonNull Intent intent) {
         super.onReceive(context, intent);
         if (SunshineSyncAdapter.ACTION_DATA_UPDATED.equals(intent.getAction())) {
-            context.startService(new Intent(context, TodayWidgetIntentService.class));
+            TodayWidgetIntentService.startUpdate(context, false);
         }
     }
 }
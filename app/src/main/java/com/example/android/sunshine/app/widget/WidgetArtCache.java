@@ -0,0 +1,87 @@
+package com.example.android.sunshine.app.widget;
+
+import android.content.Context;
+import android.graphics.Bitmap;
+import android.support.v4.util.LruCache;
+import android.util.Log;
+
+import com.bumptech.glide.Glide;
+
+import java.util.concurrent.ExecutionException;
+
+/**
+ * Art pack bitmaps for widgets, scaled to the size a widget shows them at and shared by every
+ * row and widget showing the same condition. Each bitmap set on a RemoteViews is copied through
+ * a binder transaction, so they are kept as small as the view they fill, and the cache is bounded
+ * by the bytes it holds.
+ */
+public class WidgetArtCache {
+    private static final String LOG_TAG = WidgetArtCache.class.getSimpleName();
+
+    // A handful of conditions at a few sizes fits comfortably, whatever the heap.
+    private static final int sMaxBytes = 4 * 1024 * 1024;
+
+    private static LruCache<String, Bitmap> sCache;
+
+    private static synchronized LruCache<String, Bitmap> getCache() {
+        if (sCache == null) {
+            int maxBytes = (int) Math.min(Runtime.getRuntime().maxMemory() / 32, sMaxBytes);
+            sCache = new LruCache<String, Bitmap>(maxBytes) {
+                @Override
+                protected int sizeOf(String key, Bitmap bitmap) {
+                    return getByteCount(bitmap);
+                }
+            };
+        }
+        return sCache;
+    }
+
+    /**
+     * Blocks until the art at {@code url} is loaded, so this must not be called on the main
+     * thread.
+     *
+     * @return the art at {@code url} scaled to fit {@code pixelSize} square, or null if it
+     * couldn't be loaded.
+     */
+    public static Bitmap getBitmap(Context context, String url, int pixelSize) {
+        LruCache<String, Bitmap> cache = getCache();
+        String key = pixelSize + ":" + url;
+        Bitmap bitmap = cache.get(key);
+        if (bitmap != null) {
+            return bitmap;
+        }
+        try {
+            // Glide leaves bitmaps loaded into a FutureTarget alone until the target is cleared,
+            // which this never does, so cached bitmaps are never recycled under a widget.
+            bitmap = Glide.with(context.getApplicationContext())
+                    .load(url)
+                    .asBitmap()
+                    .fitCenter()
+                    .into(pixelSize, pixelSize).get();
+        } catch (InterruptedException | ExecutionException e) {
+            Log.e(LOG_TAG, "Error retrieving widget art from " + url, e);
+            return null;
+        }
+        cache.put(key, bitmap);
+        return bitmap;
+    }
+
+    /**
+     * @return the number of bytes {@code bitmap} adds to a binder transaction.
+     */
+    public static int getByteCount(Bitmap bitmap) {
+        // Bitmap.getByteCount() needs API 12.
+        return bitmap.getRowBytes() * bitmap.getHeight();
+    }
+
+    /**
+     * @return a summary of the cache, for logging.
+     */
+    public static String getStats() {
+        return getCache().toString();
+    }
+
+    static void clear() {
+        getCache().evictAll();
+    }
+}
@@ -0,0 +1,81 @@
+package com.example.android.sunshine.common;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * One day of the forecast strip, published to the wearable as its own DataItem under
+ * {@link #PATH_PREFIX} so that only the days whose values changed need to be sent again.
+ * <p/>
+ * Layout (big endian), version 1:
+ * <pre>
+ * byte  version
+ * long  date         normalized UTC date, also the last segment of the DataItem path
+ * short weatherId
+ * short high         tenths of a degree Celsius
+ * short low          tenths of a degree Celsius
+ * </pre>
+ * Shared by the phone app and the wearable module.
+ */
+public class ForecastDay {
+    public static final String PATH_PREFIX = "/forecast/";
+
+    public static final byte VERSION = 1;
+
+    private static final int SIZE = 1 + 8 + 2 + 2 + 2;
+
+    public final long date;
+    public final int weatherId;
+    public final double high;
+    public final double low;
+
+    public ForecastDay(long date, int weatherId, double high, double low) {
+        this.date = date;
+        this.weatherId = weatherId;
+        this.high = high;
+        this.low = low;
+    }
+
+    public static String pathFor(long date) {
+        return PATH_PREFIX + date;
+    }
+
+    public static boolean isForecastPath(String path) {
+        return path != null && path.startsWith(PATH_PREFIX);
+    }
+
+    public byte[] toByteArray() {
+        ByteBuffer buffer = ByteBuffer.allocate(SIZE);
+        buffer.put(VERSION);
+        buffer.putLong(date);
+        buffer.putShort((short) weatherId);
+        buffer.putShort((short) Math.round(high * 10));
+        buffer.putShort((short) Math.round(low * 10));
+        return buffer.array();
+    }
+
+    /**
+     * @param data the raw DataItem content
+     * @return the decoded day, or null if it's empty, truncated or of an unknown version.
+     */
+    public static ForecastDay fromByteArray(byte[] data) {
+        if (data == null || data.length < SIZE) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (buffer.get() != VERSION) {
+            return null;
+        }
+
+        try {
+            long date = buffer.getLong();
+            int weatherId = buffer.getShort();
+            double high = buffer.getShort() / 10d;
+            double low = buffer.getShort() / 10d;
+            return new ForecastDay(date, weatherId, high, low);
+        } catch (BufferUnderflowException e) {
+            return null;
+        }
+    }
+}
@@ -0,0 +1,75 @@
+package com.example.android.sunshine.common;
+
+/**
+ * The conditions Sunshine has artwork for. Each module maps them to its own drawables.
+ */
+public enum WeatherCondition {
+    STORM("storm"),
+    LIGHT_RAIN("light_rain"),
+    RAIN("rain"),
+    SNOW("snow"),
+    FOG("fog"),
+    CLEAR("clear"),
+    LIGHT_CLOUDS("light_clouds"),
+    CLOUDS("clouds");
+
+    private final String mArtName;
+
+    WeatherCondition(String artName) {
+        mArtName = artName;
+    }
+
+    /**
+     * @return the name of the condition in art pack URLs, e.g. "light_rain".
+     */
+    public String getArtName() {
+        return mArtName;
+    }
+
+    /**
+     * Maps an OpenWeatherMap condition id to a condition with a single array lookup.
+     * Based on weather code data found at:
+     * http://bugs.openweathermap.org/projects/api/wiki/Weather_Condition_Codes
+     *
+     * @param weatherId from OpenWeatherMap API response
+     * @return the condition, or null if there is none for the id.
+     */
+    public static WeatherCondition forWeatherId(int weatherId) {
+        if (weatherId < 0 || weatherId >= sTable.length) {
+            return null;
+        }
+        return sTable[weatherId];
+    }
+
+    /**
+     * @return the highest weather id that has a condition, for sizing tables indexed by id.
+     */
+    public static int getMaxWeatherId() {
+        return sTable.length - 1;
+    }
+
+    private static final WeatherCondition[] sTable = new WeatherCondition[805];
+
+    static {
+        // Later ranges don't overwrite earlier ones, so 761 stays fog.
+        put(200, 232, STORM);
+        put(300, 321, LIGHT_RAIN);
+        put(500, 504, RAIN);
+        put(511, 511, SNOW);
+        put(520, 531, RAIN);
+        put(600, 622, SNOW);
+        put(701, 761, FOG);
+        put(781, 781, STORM);
+        put(800, 800, CLEAR);
+        put(801, 801, LIGHT_CLOUDS);
+        put(802, 804, CLOUDS);
+    }
+
+    private static void put(int firstId, int lastId, WeatherCondition condition) {
+        for (int id = firstId; id <= lastId; id++) {
+            if (sTable[id] == null) {
+                sTable[id] = condition;
+            }
+        }
+    }
+}
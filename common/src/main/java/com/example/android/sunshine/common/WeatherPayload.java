@@ -0,0 +1,147 @@
+package com.example.android.sunshine.common;
+
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * Compact, versioned binary representation of the weather sent to the wearable on the
+ * {@link #PATH} DataItem. Temperatures travel as raw Celsius values (in tenths of a degree) so the
+ * watch does the formatting and can reformat when only the unit preference changes.
+ * <p/>
+ * Layout (big endian), version 1:
+ * <pre>
+ * byte  version
+ * byte  flags            bit 0: metric units preferred
+ * long  syncedAt         when the phone fetched the forecast
+ * long  publishedAt      when this payload was sent
+ * long  firstDay         normalized UTC date of the first day
+ * byte  dayCount
+ * dayCount x {
+ *     short weatherId
+ *     short high         tenths of a degree Celsius
+ *     short low          tenths of a degree Celsius
+ * }
+ * </pre>
+ * Shared by the phone app and the wearable module.
+ */
+public class WeatherPayload {
+    public static final String PATH = "/current-weather";
+
+    /**
+     * Path of the one-shot message the watch sends to ask for weather newer than what it has.
+     * Its content is the {@link #syncedAt} of the watch's data, as 8 bytes, 0 if it has none.
+     */
+    public static final String REQUEST_PATH = "/weather-request";
+
+    public static final byte VERSION = 1;
+    public static final int MAX_DAYS = 14;
+
+    private static final int FLAG_METRIC = 1;
+    private static final int HEADER_SIZE = 1 + 1 + 8 + 8 + 8 + 1;
+    private static final int DAY_SIZE = 2 + 2 + 2;
+
+    public final boolean isMetric;
+    public final long syncedAt;
+    public final long publishedAt;
+    public final long firstDay;
+    public final int[] weatherIds;
+    public final double[] highs;
+    public final double[] lows;
+
+    public WeatherPayload(boolean isMetric, long syncedAt, long publishedAt, long firstDay,
+                          int[] weatherIds, double[] highs, double[] lows) {
+        if (weatherIds.length != highs.length || weatherIds.length != lows.length) {
+            throw new IllegalArgumentException("Day arrays must have the same length");
+        }
+        if (weatherIds.length > MAX_DAYS) {
+            throw new IllegalArgumentException("At most " + MAX_DAYS + " days are supported");
+        }
+        this.isMetric = isMetric;
+        this.syncedAt = syncedAt;
+        this.publishedAt = publishedAt;
+        this.firstDay = firstDay;
+        this.weatherIds = weatherIds;
+        this.highs = highs;
+        this.lows = lows;
+    }
+
+    public int getDayCount() {
+        return weatherIds.length;
+    }
+
+    public static int sizeFor(int dayCount) {
+        return HEADER_SIZE + dayCount * DAY_SIZE;
+    }
+
+    public byte[] toByteArray() {
+        ByteBuffer buffer = ByteBuffer.allocate(sizeFor(getDayCount()));
+        buffer.put(VERSION);
+        buffer.put((byte) (isMetric ? FLAG_METRIC : 0));
+        buffer.putLong(syncedAt);
+        buffer.putLong(publishedAt);
+        buffer.putLong(firstDay);
+        buffer.put((byte) getDayCount());
+        for (int i = 0; i < getDayCount(); i++) {
+            buffer.putShort((short) weatherIds[i]);
+            buffer.putShort(toTenths(highs[i]));
+            buffer.putShort(toTenths(lows[i]));
+        }
+        return buffer.array();
+    }
+
+    /**
+     * @param data the raw DataItem content
+     * @return the decoded payload, or null if it's empty, truncated or of an unknown version.
+     */
+    public static WeatherPayload fromByteArray(byte[] data) {
+        if (data == null || data.length < HEADER_SIZE) {
+            return null;
+        }
+
+        ByteBuffer buffer = ByteBuffer.wrap(data);
+        if (buffer.get() != VERSION) {
+            return null;
+        }
+
+        try {
+            boolean isMetric = (buffer.get() & FLAG_METRIC) != 0;
+            long syncedAt = buffer.getLong();
+            long publishedAt = buffer.getLong();
+            long firstDay = buffer.getLong();
+            int dayCount = buffer.get() & 0xff;
+            if (dayCount > MAX_DAYS) {
+                return null;
+            }
+
+            int[] weatherIds = new int[dayCount];
+            double[] highs = new double[dayCount];
+            double[] lows = new double[dayCount];
+            for (int i = 0; i < dayCount; i++) {
+                weatherIds[i] = buffer.getShort();
+                highs[i] = buffer.getShort() / 10d;
+                lows[i] = buffer.getShort() / 10d;
+            }
+            return new WeatherPayload(isMetric, syncedAt, publishedAt, firstDay, weatherIds, highs, lows);
+        } catch (BufferUnderflowException e) {
+            return null;
+        }
+    }
+
+    public static byte[] encodeRequest(long syncedAt) {
+        return ByteBuffer.allocate(8).putLong(syncedAt).array();
+    }
+
+    /**
+     * @return the timestamp carried by a {@link #REQUEST_PATH} message, 0 if it's malformed.
+     */
+    public static long decodeRequest(byte[] data) {
+        if (data == null || data.length < 8) {
+            return 0;
+        }
+        return ByteBuffer.wrap(data).getLong();
+    }
+
+    private static short toTenths(double temperature) {
+        return (short) Math.round(temperature * 10);
+    }
+}
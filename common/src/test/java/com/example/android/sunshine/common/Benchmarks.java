@@ -0,0 +1,77 @@
+package com.example.android.sunshine.common;
+
+import java.util.Locale;
+
+/**
+ * JVM microbenchmarks for the shared code, run with {@code ./gradlew :common:benchmark}. Each case
+ * is warmed up before being timed; results are printed in nanoseconds per operation.
+ */
+public class Benchmarks {
+    private static final int sWarmupIterations = 200000;
+    private static final int sIterations = 2000000;
+
+    /**
+     * Weather ids as they show up in a real forecast, cycled through by the lookups.
+     */
+    private static final int[] sWeatherIds = {800, 801, 802, 500, 501, 211, 300, 600, 741, 804, 520, 781};
+
+    // Written by the benchmarks so the JIT can't drop their work.
+    private static int sSink;
+
+    private interface Case {
+        void run(int iterations);
+    }
+
+    public static void main(String[] args) {
+        run("WeatherCondition.forWeatherId", new Case() {
+            @Override
+            public void run(int iterations) {
+                for (int i = 0; i < iterations; i++) {
+                    WeatherCondition condition = WeatherCondition.forWeatherId(sWeatherIds[i % sWeatherIds.length]);
+                    sSink += condition == null ? 0 : condition.ordinal();
+                }
+            }
+        });
+        run("legacy if-chain", new Case() {
+            @Override
+            public void run(int iterations) {
+                for (int i = 0; i < iterations; i++) {
+                    String name = LegacyConditions.artNameFor(sWeatherIds[i % sWeatherIds.length]);
+                    sSink += name == null ? 0 : name.length();
+                }
+            }
+        });
+
+        final WeatherPayload payload = new WeatherPayload(true, 1460000000000L, 1460000005000L,
+                1459987200000L, new int[]{800, 801, 802, 500, 501, 211, 300, 600, 741, 804, 520, 781, 800, 800},
+                new double[]{21, 22, 23, 20, 19, 18, 17, 16, 15, 14, 13, 12, 11, 10},
+                new double[]{11, 12, 13, 10, 9, 8, 7, 6, 5, 4, 3, 2, 1, 0});
+        final byte[] data = payload.toByteArray();
+        run("WeatherPayload.toByteArray (14 days)", new Case() {
+            @Override
+            public void run(int iterations) {
+                for (int i = 0; i < iterations; i++) {
+                    sSink += payload.toByteArray().length;
+                }
+            }
+        });
+        run("WeatherPayload.fromByteArray (14 days)", new Case() {
+            @Override
+            public void run(int iterations) {
+                for (int i = 0; i < iterations; i++) {
+                    sSink += WeatherPayload.fromByteArray(data).getDayCount();
+                }
+            }
+        });
+
+        System.out.println("(sink " + sSink + ")");
+    }
+
+    private static void run(String name, Case benchmark) {
+        benchmark.run(sWarmupIterations);
+        long start = System.nanoTime();
+        benchmark.run(sIterations);
+        double nsPerOp = (System.nanoTime() - start) / (double) sIterations;
+        System.out.println(String.format(Locale.US, "%-45s %8.1f ns/op", name, nsPerOp));
+    }
+}
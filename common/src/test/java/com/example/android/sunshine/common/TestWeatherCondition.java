@@ -0,0 +1,27 @@
+package com.example.android.sunshine.common;
+
+import junit.framework.TestCase;
+
+public class TestWeatherCondition extends TestCase {
+
+    public void testMatchesLegacyMapping() {
+        for (int weatherId = -10; weatherId < 1000; weatherId++) {
+            WeatherCondition condition = WeatherCondition.forWeatherId(weatherId);
+            String expected = LegacyConditions.artNameFor(weatherId);
+            assertEquals("Error: mismatch for weather id " + weatherId, expected,
+                    condition == null ? null : condition.getArtName());
+        }
+    }
+
+    public void testOverlappingIds() {
+        // 761 is in both the fog range and the storm list; fog came first in the original chain.
+        assertEquals(WeatherCondition.FOG, WeatherCondition.forWeatherId(761));
+        assertEquals(WeatherCondition.STORM, WeatherCondition.forWeatherId(781));
+    }
+
+    public void testOutOfRange() {
+        assertNull(WeatherCondition.forWeatherId(Integer.MIN_VALUE));
+        assertNull(WeatherCondition.forWeatherId(WeatherCondition.getMaxWeatherId() + 1));
+        assertNull(WeatherCondition.forWeatherId(Integer.MAX_VALUE));
+    }
+}
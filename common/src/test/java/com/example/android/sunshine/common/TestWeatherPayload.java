@@ -0,0 +1,73 @@
+package com.example.android.sunshine.common;
+
+import junit.framework.TestCase;
+
+public class TestWeatherPayload extends TestCase {
+
+    private static final long TEST_SYNCED_AT = 1460000000000L;
+    private static final long TEST_PUBLISHED_AT = 1460000005000L;
+    private static final long TEST_FIRST_DAY = 1459987200000L;
+
+    public void testRoundTrip() {
+        WeatherPayload payload = new WeatherPayload(false, TEST_SYNCED_AT, TEST_PUBLISHED_AT,
+                TEST_FIRST_DAY, new int[]{800, 501, 211}, new double[]{21.4, -3.25, 0},
+                new double[]{12.0, -10.6, -0.04});
+
+        byte[] data = payload.toByteArray();
+        assertEquals(WeatherPayload.sizeFor(3), data.length);
+
+        WeatherPayload decoded = WeatherPayload.fromByteArray(data);
+        assertNotNull(decoded);
+        assertFalse(decoded.isMetric);
+        assertEquals(TEST_SYNCED_AT, decoded.syncedAt);
+        assertEquals(TEST_PUBLISHED_AT, decoded.publishedAt);
+        assertEquals(TEST_FIRST_DAY, decoded.firstDay);
+        assertEquals(3, decoded.getDayCount());
+        for (int i = 0; i < 3; i++) {
+            assertEquals(payload.weatherIds[i], decoded.weatherIds[i]);
+            // Temperatures travel in tenths of a degree.
+            assertEquals(payload.highs[i], decoded.highs[i], 0.05);
+            assertEquals(payload.lows[i], decoded.lows[i], 0.05);
+        }
+    }
+
+    public void testFullForecastFitsInFewHundredBytes() {
+        assertTrue(WeatherPayload.sizeFor(WeatherPayload.MAX_DAYS) < 200);
+    }
+
+    public void testRejectsUnknownVersionAndTruncatedData() {
+        byte[] data = new WeatherPayload(true, TEST_SYNCED_AT, TEST_PUBLISHED_AT, TEST_FIRST_DAY,
+                new int[]{800}, new double[]{20}, new double[]{10}).toByteArray();
+
+        byte[] truncated = new byte[data.length - 1];
+        System.arraycopy(data, 0, truncated, 0, truncated.length);
+        assertNull(WeatherPayload.fromByteArray(truncated));
+
+        data[0] = WeatherPayload.VERSION + 1;
+        assertNull(WeatherPayload.fromByteArray(data));
+
+        assertNull(WeatherPayload.fromByteArray(null));
+    }
+
+    public void testForecastDayRoundTrip() {
+        ForecastDay day = new ForecastDay(TEST_FIRST_DAY, 601, -2.5, -7.3);
+
+        ForecastDay decoded = ForecastDay.fromByteArray(day.toByteArray());
+        assertNotNull(decoded);
+        assertEquals(day.date, decoded.date);
+        assertEquals(day.weatherId, decoded.weatherId);
+        assertEquals(day.high, decoded.high, 0.05);
+        assertEquals(day.low, decoded.low, 0.05);
+        assertEquals("/forecast/" + TEST_FIRST_DAY, ForecastDay.pathFor(day.date));
+    }
+
+    public void testForecastPath() {
+        assertTrue(ForecastDay.isForecastPath(ForecastDay.pathFor(TEST_FIRST_DAY)));
+        assertFalse(ForecastDay.isForecastPath(WeatherPayload.PATH));
+        assertFalse(ForecastDay.isForecastPath(null));
+    }
+
+    public void testRequestRoundTrip() {
+        assertEquals(TEST_SYNCED_AT, WeatherPayload.decodeRequest(WeatherPayload.encodeRequest(TEST_SYNCED_AT)));
+    }
+}
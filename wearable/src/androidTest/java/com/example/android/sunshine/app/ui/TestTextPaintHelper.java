@@ -0,0 +1,62 @@
+package com.example.android.sunshine.app.ui;
+
+import android.content.res.Resources;
+import android.graphics.Paint;
+import android.test.AndroidTestCase;
+
+import com.example.android.sunshine.app.R;
+
+public class TestTextPaintHelper extends AndroidTestCase {
+
+    public void testPaintSetsAreBuiltOnce() {
+        Resources resources = getContext().getResources();
+        TextPaintHelper helper = new TextPaintHelper(resources, WatchFaceLayout.Dimensions.fromResources(resources));
+
+        // Switching modes back and forth hands out the same paints.
+        TextPaintHelper.PaintSet interactive = helper.get(false, false, false, false);
+        helper.get(true, false, false, false);
+        assertSame(interactive, helper.get(false, false, false, false));
+
+        // Low-bit only matters in ambient mode.
+        assertSame(interactive, helper.get(false, true, false, false));
+        assertNotSame(helper.get(true, false, false, false), helper.get(true, true, false, false));
+    }
+
+    public void testAmbientPaints() {
+        Resources resources = getContext().getResources();
+        TextPaintHelper helper = new TextPaintHelper(resources, WatchFaceLayout.Dimensions.fromResources(resources));
+
+        TextPaintHelper.PaintSet ambient = helper.get(true, false, false, false);
+        assertEquals(resources.getColor(R.color.digital_text_ambient_primary), ambient.time.getColor());
+        assertTrue(ambient.time.isAntiAlias());
+
+        TextPaintHelper.PaintSet lowBit = helper.get(true, true, false, false);
+        assertFalse(lowBit.time.isAntiAlias());
+        assertFalse(lowBit.forecast.isAntiAlias());
+        assertEquals(Paint.Style.STROKE, lowBit.time.getStyle());
+        assertEquals(Paint.Style.STROKE, lowBit.date.getStyle());
+    }
+
+    public void testBurnInProtectionOutlinesText() {
+        Resources resources = getContext().getResources();
+        TextPaintHelper helper = new TextPaintHelper(resources, WatchFaceLayout.Dimensions.fromResources(resources));
+
+        TextPaintHelper.PaintSet burnIn = helper.get(true, false, true, false);
+        assertEquals(Paint.Style.STROKE, burnIn.time.getStyle());
+        assertEquals(Paint.Style.STROKE, burnIn.highTemperature.getStyle());
+        assertEquals(Paint.Style.STROKE, burnIn.date.getStyle());
+        assertEquals(Paint.Style.STROKE, burnIn.lowTemperature.getStyle());
+        assertTrue(burnIn.time.isAntiAlias());
+
+        assertEquals(Paint.Style.FILL, helper.get(true, false, false, false).time.getStyle());
+        assertSame(helper.get(false, false, false, false), helper.get(false, false, true, false));
+    }
+
+    public void testRoundTextSizes() {
+        Resources resources = getContext().getResources();
+        TextPaintHelper helper = new TextPaintHelper(resources, WatchFaceLayout.Dimensions.fromResources(resources));
+
+        assertEquals(resources.getDimension(R.dimen.digital_time_text_size_round), helper.get(false, false, false, true).time.getTextSize());
+        assertEquals(resources.getDimension(R.dimen.digital_time_text_size), helper.get(false, false, false, false).time.getTextSize());
+    }
+}
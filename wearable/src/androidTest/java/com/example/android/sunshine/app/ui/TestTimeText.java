@@ -0,0 +1,92 @@
+package com.example.android.sunshine.app.ui;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+import android.graphics.Color;
+import android.graphics.Paint;
+import android.os.Debug;
+import android.test.AndroidTestCase;
+
+import java.util.Calendar;
+
+public class TestTimeText extends AndroidTestCase {
+
+    public void testFormatsInteractiveAndAmbientTime() {
+        TimeText timeText = new TimeText();
+
+        timeText.set(9, 5, 7, true);
+        assertEquals("09:05:07", timeText.toString());
+
+        timeText.set(23, 59, 59, false);
+        assertEquals("23:59", timeText.toString());
+    }
+
+    @SuppressWarnings("deprecation")
+    public void testDoesNotAllocatePerFrame() {
+        TimeText timeText = new TimeText();
+        // Warm up, so class loading doesn't count.
+        timeText.set(0, 0, 0, true);
+
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+        try {
+            // A day's worth of interactive frames.
+            for (int second = 0; second < 24 * 60 * 60; second++) {
+                timeText.set(second / 3600, (second / 60) % 60, second % 60, true);
+            }
+        } finally {
+            Debug.stopAllocCounting();
+        }
+
+        assertEquals("Error: TimeText allocated while formatting", 0, Debug.getThreadAllocCount());
+    }
+
+    /**
+     * Runs the work the watch face does every interactive frame: updating the calendar, reading
+     * the time from it, formatting it, and drawing the cached static layer and the time into a
+     * bitmap-backed canvas.
+     */
+    @SuppressWarnings("deprecation")
+    public void testFrameDoesNotAllocate() {
+        Resources resources = getContext().getResources();
+        WatchFaceLayout.Dimensions dimensions = WatchFaceLayout.Dimensions.fromResources(resources);
+        Paint timePaint = new TextPaintHelper(resources, dimensions).get(false, false, false, false).time;
+
+        Bitmap screen = Bitmap.createBitmap(320, 320, Bitmap.Config.ARGB_8888);
+        Bitmap staticLayer = Bitmap.createBitmap(320, 320, Bitmap.Config.ARGB_8888);
+        staticLayer.eraseColor(Color.BLUE);
+        Canvas canvas = new Canvas(screen);
+        Calendar calendar = Calendar.getInstance();
+        TimeText timeText = new TimeText();
+
+        // An hour of frames, starting at midnight so the day doesn't change.
+        calendar.set(2016, Calendar.APRIL, 10, 0, 0, 0);
+        long start = calendar.getTimeInMillis();
+        // Warm up, so class loading and lazy initialization don't count.
+        drawFrame(canvas, staticLayer, calendar, timeText, timePaint, start);
+
+        Debug.resetThreadAllocCount();
+        Debug.startAllocCounting();
+        try {
+            for (int second = 1; second < 60 * 60; second++) {
+                drawFrame(canvas, staticLayer, calendar, timeText, timePaint, start + second * 1000L);
+            }
+        } finally {
+            Debug.stopAllocCounting();
+        }
+
+        assertEquals("Error: drawing a frame allocated", 0, Debug.getThreadAllocCount());
+        screen.recycle();
+        staticLayer.recycle();
+    }
+
+    private static void drawFrame(Canvas canvas, Bitmap staticLayer, Calendar calendar,
+                                  TimeText timeText, Paint timePaint, long now) {
+        calendar.setTimeInMillis(now);
+        canvas.drawBitmap(staticLayer, 0, 0, null);
+        timeText.set(calendar.get(Calendar.HOUR_OF_DAY), calendar.get(Calendar.MINUTE),
+                calendar.get(Calendar.SECOND), true);
+        canvas.drawText(timeText.getChars(), 0, timeText.length(), 20, 160, timePaint);
+    }
+}
@@ -0,0 +1,66 @@
+package com.example.android.sunshine.app.wearable;
+
+import android.database.Cursor;
+import android.test.AndroidTestCase;
+
+import com.example.android.sunshine.common.WeatherPayload;
+
+public class TestCurrentWeatherProvider extends AndroidTestCase {
+
+    @Override
+    protected void tearDown() throws Exception {
+        getContext().getSharedPreferences("weather_cache", 0).edit().clear().commit();
+        super.tearDown();
+    }
+
+    public void testServesCachedWeather() {
+        long now = System.currentTimeMillis();
+        WeatherPayload payload = new WeatherPayload(true, now, now, now,
+                new int[]{800, 500}, new double[]{21.4, 18}, new double[]{12.2, 10});
+        new WeatherCache(getContext()).save(payload.toByteArray());
+
+        Cursor cursor = getContext().getContentResolver().query(CurrentWeatherProvider.CONTENT_URI,
+                null, null, null, null);
+        assertNotNull(cursor);
+        try {
+            assertTrue("Error: no current weather row", cursor.moveToFirst());
+            assertEquals(800, cursor.getInt(cursor.getColumnIndex(CurrentWeatherProvider.COLUMN_WEATHER_ID)));
+            assertEquals("21°", cursor.getString(cursor.getColumnIndex(CurrentWeatherProvider.COLUMN_HIGH_TEXT)));
+            assertEquals("12°", cursor.getString(cursor.getColumnIndex(CurrentWeatherProvider.COLUMN_LOW_TEXT)));
+            assertEquals(now, cursor.getLong(cursor.getColumnIndex(CurrentWeatherProvider.COLUMN_SYNCED_AT)));
+            assertEquals(0, cursor.getInt(cursor.getColumnIndex(CurrentWeatherProvider.COLUMN_STALE)));
+            assertNotNull(cursor.getString(cursor.getColumnIndex(CurrentWeatherProvider.COLUMN_ICON_URI)));
+        } finally {
+            cursor.close();
+        }
+    }
+
+    public void testProjection() {
+        long now = System.currentTimeMillis();
+        WeatherPayload payload = new WeatherPayload(false, now, now, now,
+                new int[]{800}, new double[]{20}, new double[]{10});
+        new WeatherCache(getContext()).save(payload.toByteArray());
+
+        Cursor cursor = getContext().getContentResolver().query(CurrentWeatherProvider.CONTENT_URI,
+                new String[]{CurrentWeatherProvider.COLUMN_HIGH_TEXT}, null, null, null);
+        assertNotNull(cursor);
+        try {
+            assertEquals(1, cursor.getColumnCount());
+            assertTrue(cursor.moveToFirst());
+            assertEquals("68°", cursor.getString(0));
+        } finally {
+            cursor.close();
+        }
+    }
+
+    public void testEmptyWithoutCachedWeather() {
+        Cursor cursor = getContext().getContentResolver().query(CurrentWeatherProvider.CONTENT_URI,
+                null, null, null, null);
+        assertNotNull(cursor);
+        try {
+            assertEquals(0, cursor.getCount());
+        } finally {
+            cursor.close();
+        }
+    }
+}
@@ -26,37 +26,50 @@ import android.graphics.Canvas;
 import android.graphics.Color;
 import android.graphics.Paint;
 import android.graphics.Rect;
-import android.graphics.drawable.BitmapDrawable;
-import android.graphics.drawable.Drawable;
+import android.net.Uri;
 import android.os.Bundle;
 import android.os.Handler;
 import android.os.Message;
+import android.os.SystemClock;
 import android.support.annotation.NonNull;
 import android.support.annotation.Nullable;
 import android.support.wearable.watchface.CanvasWatchFaceService;
 import android.support.wearable.watchface.WatchFaceStyle;
 import android.text.format.DateFormat;
-import android.text.format.Time;
 import android.util.Log;
 import android.view.SurfaceHolder;
 import android.view.WindowInsets;
 
+import com.example.android.sunshine.app.ui.FrameMetrics;
+import com.example.android.sunshine.app.ui.LayerCache;
 import com.example.android.sunshine.app.ui.TextPaintHelper;
+import com.example.android.sunshine.app.ui.TimeText;
+import com.example.android.sunshine.app.ui.WatchFaceLayout;
+import com.example.android.sunshine.app.ui.WeatherIconCache;
+import com.example.android.sunshine.app.wearable.WeatherCache;
+import com.example.android.sunshine.common.ForecastDay;
+import com.example.android.sunshine.common.WeatherPayload;
 import com.google.android.gms.common.ConnectionResult;
 import com.google.android.gms.common.api.GoogleApiClient;
 import com.google.android.gms.common.api.ResultCallback;
 import com.google.android.gms.wearable.DataApi;
 import com.google.android.gms.wearable.DataEvent;
 import com.google.android.gms.wearable.DataEventBuffer;
+import com.google.android.gms.wearable.DataItem;
+import com.google.android.gms.wearable.DataItemBuffer;
 import com.google.android.gms.wearable.DataMap;
-import com.google.android.gms.wearable.DataMapItem;
+import com.google.android.gms.wearable.MessageApi;
+import com.google.android.gms.wearable.Node;
+import com.google.android.gms.wearable.NodeApi;
 import com.google.android.gms.wearable.PutDataMapRequest;
 import com.google.android.gms.wearable.PutDataRequest;
 import com.google.android.gms.wearable.Wearable;
 
 import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Calendar;
 import java.util.TimeZone;
-import java.util.UUID;
+import java.util.TreeMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -76,6 +89,19 @@ public class SunshineDigitalWatchFace extends CanvasWatchFaceService {
      */
     private static final int MSG_UPDATE_TIME = 0;
 
+    /**
+     * Broadcast to log the frame metrics and sync them to the phone. Only received by debug
+     * builds, from senders holding {@link #PERMISSION_DUMP_FRAME_METRICS}, such as the test APK.
+     * Set {@link #EXTRA_RESET} to start a new measurement afterwards.
+     */
+    public static final String ACTION_DUMP_FRAME_METRICS = "com.example.android.sunshine.app.action.DUMP_FRAME_METRICS";
+    public static final String EXTRA_RESET = "reset";
+    /**
+     * Signature permission required to send {@link #ACTION_DUMP_FRAME_METRICS}.
+     */
+    public static final String PERMISSION_DUMP_FRAME_METRICS = "com.example.android.sunshine.app.permission.DUMP_FRAME_METRICS";
+    public static final String FRAME_METRICS_PATH = "/watch-face-metrics";
+
     @Override
     public Engine onCreateEngine() {
         return new Engine();
@@ -101,20 +127,25 @@ public class SunshineDigitalWatchFace extends CanvasWatchFaceService {
         }
     }
 
-    private class Engine extends CanvasWatchFaceService.Engine implements DataApi.DataListener, GoogleApiClient.ConnectionCallbacks, GoogleApiClient.OnConnectionFailedListener {
+    private class Engine extends CanvasWatchFaceService.Engine implements DataApi.DataListener, GoogleApiClient.ConnectionCallbacks, GoogleApiClient.OnConnectionFailedListener, LayerCache.Renderer {
         public static final String EXTRA_TIME_ZONE = "time-zone";
         private String LOG_TAG = Engine.class.getSimpleName();
 
-        private static final String sWeatherPath = "/weather";
-        private static final String sCurrentWeatherPath = "/current-weather";
-
-        private static final String sKeyUuid = "uuid";
-        private static final String sKeyHighTemperature = "high_temperature";
-        private static final String sKeyLowTemperature = "low_temperature";
-        private static final String sKeyWeatherId = "weather_id";
-
         private static final String sDateFormat = "E, MMM d, yyyy";
         private static final int sSeparatorWidth = 80;
+        private static final String sForecastDayFormat = "EEE";
+
+        private static final int LAYER_INTERACTIVE = 0;
+        private static final int LAYER_AMBIENT = 1;
+        private static final int sForecastStripDays = 3;
+
+        /**
+         * Offsets, in units of the burn-in shift, the ambient screen cycles through one per minute
+         * on displays that need burn-in protection, so no pixel stays lit for long.
+         */
+        private static final int[][] sBurnInShifts = {
+                {0, 0}, {1, 0}, {1, 1}, {0, 1}, {-1, 1}, {-1, 0}, {-1, -1}, {0, -1}, {1, -1}
+        };
         private final Handler mUpdateTimeHandler = new EngineHandler(this);
         private boolean mRegisteredTimeZoneReceiver = false;
 
@@ -131,16 +162,51 @@ public class SunshineDigitalWatchFace extends CanvasWatchFaceService {
         private Paint mBackgroundPaint;
         private Paint mSeparatorPaint;
 
-        private Paint mTextPaintTime;
-        private Paint mTextPaintDate;
-        private Paint mTextPaintHighTemperature;
-        private Paint mTextPaintLowTemperature;
+        private int mSeparatorColorInteractive;
+        private int mSeparatorColorAmbient;
+        private int mSeparatorColorStale;
+
+        /**
+         * The paints for the current mode, swapped as a whole when the mode changes.
+         */
+        private TextPaintHelper.PaintSet mPaints;
 
+        private WeatherIconCache mWeatherIconCache;
+        private int mWeatherIconResourceId = -1;
         private Bitmap mWeatherIcon;
+        private Bitmap mWeatherIconAmbient;
+
+        private final WeatherIconCache.Callback mWeatherIconCallback = new WeatherIconCache.Callback() {
+            @Override
+            public void onIconLoaded(int resourceId) {
+                if (resourceId == mWeatherIconResourceId) {
+                    updateWeatherIcons();
+                    mStaticLayers.invalidate();
+                    invalidate(FrameMetrics.SOURCE_DATA);
+                }
+            }
+        };
+
+        private final FrameMetrics mFrameMetrics = new FrameMetrics(SystemClock.elapsedRealtime());
+        private final BroadcastReceiver mDumpFrameMetricsReceiver = new BroadcastReceiver() {
+            @Override
+            public void onReceive(Context context, Intent intent) {
+                dumpFrameMetrics(intent.getBooleanExtra(EXTRA_RESET, false));
+            }
+        };
 
         private boolean mAmbient;
         private boolean mIsRound;
-        private Time mTime;
+        private Calendar mCalendar;
+
+        private final TimeText mTimeText = new TimeText();
+
+        /**
+         * The formatted date, only recomputed when the day or the time zone changes.
+         */
+        private String mDateText;
+        private int mDateYear = -1;
+        private int mDateDayOfYear = -1;
 
         private final BroadcastReceiver mTimeZoneReceiver = new BroadcastReceiver() {
             @Override
@@ -151,32 +217,54 @@ public class SunshineDigitalWatchFace extends CanvasWatchFaceService {
 
         private int mTapCount;
 
-        private float mXOffsetTime;
-        private float mYOffsetTime;
-
-        private float mXOffsetDate;
-        private float mYOffsetDate;
-
-        private float mYOffsetSeparator;
-
-        private float mXOffsetWeatherIcon;
-        private float mYOffsetWeatherIcon;
-
-        private float mYOffsetHighTemperature;
-
-        private float mXOffsetLowTemperature;
-        private float mYOffsetLowTemperature;
+        private WatchFaceLayout mLayout;
 
         /**
          * Whether the display supports fewer bits for each color in ambient mode. When true, we
          * disable anti-aliasing in ambient mode.
          */
         private boolean mLowBitAmbient;
-        private float mMarginLeft;
+
+        private boolean mBurnInProtection;
+        private int mBurnInShift;
+        private int mShiftX;
+        private int mShiftY;
+
+        private int mLitPixelsRenderCount = -1;
+        private int mLitPixelsMinute = -1;
+        private int[] mLitPixelsRow;
+        // The static layer with the time drawn over it, as the screen shows it. Debug builds only.
+        private Bitmap mLitPixelsFrame;
+        private Canvas mLitPixelsCanvas;
 
         private String mHighTemperature;
         private String mLowTemperature;
 
+        private boolean mIsMetric = true;
+        private long mToday;
+        private final TreeMap<Long, ForecastDay> mForecastDays = new TreeMap<>();
+
+        private final String[] mForecastLabels = new String[sForecastStripDays];
+        private final String[] mForecastTemperatures = new String[sForecastStripDays];
+        private int mForecastCount;
+
+        private WeatherCache mWeatherCache;
+        private long mWeatherTimestamp;
+        private boolean mWeatherStale = true;
+
+        /**
+         * When the engine was created or last became visible, to measure how long it takes until
+         * a frame with weather is drawn.
+         */
+        private long mFirstWeatherFrameStart;
+        private boolean mFirstWeatherFrameDrawn;
+
+        private final LayerCache mStaticLayers = new LayerCache(2);
+
+        private long mEngineCreatedAt;
+        private int mConnectionCount;
+        private int mRequestCount;
+
         @Override
         public void onCreate(SurfaceHolder holder) {
             super.onCreate(holder);
@@ -189,35 +277,88 @@ public class SunshineDigitalWatchFace extends CanvasWatchFaceService {
                     .build());
             mResources = SunshineDigitalWatchFace.this.getResources();
 
-            mTextPaintHelper = new TextPaintHelper(mResources);
+            WatchFaceLayout.Dimensions dimensions = WatchFaceLayout.Dimensions.fromResources(mResources);
+            mTextPaintHelper = new TextPaintHelper(mResources, dimensions);
+            mBurnInShift = dimensions.burnInShift;
+            selectPaints();
+            mWeatherIconCache = new WeatherIconCache(mResources);
 
-            mYOffsetTime = mResources.getDimension(R.dimen.digital_time_y_offset);
-            mYOffsetDate = mResources.getDimension(R.dimen.digital_date_y_offset);
+            mBackgroundPaint = new Paint();
+            mBackgroundPaint.setColor(mResources.getColor(R.color.background_default));
 
-            mYOffsetSeparator = mResources.getDimension(R.dimen.digital_separator_y_offset);
-            mYOffsetWeatherIcon = mResources.getDimension(R.dimen.digital_weather_icon_y_offset);
+            mSeparatorColorInteractive = mResources.getColor(R.color.digital_text_interactive_secondary);
+            mSeparatorColorAmbient = mResources.getColor(R.color.digital_text_ambient_primary);
+            mSeparatorColorStale = mResources.getColor(R.color.digital_weather_stale);
+            mSeparatorPaint = new Paint();
+            adjustSeparator();
 
-            mYOffsetHighTemperature = mResources.getDimension(R.dimen.digital_high_temperature_y_offset);
-            mYOffsetLowTemperature = mResources.getDimension(R.dimen.digital_low_temperature_y_offset);
+            final Paint measurePaint = mTextPaintHelper.forType(TextPaintHelper.Type.HIGH_TEMPERATURE);
+            mLayout = new WatchFaceLayout(dimensions,
+                    new WatchFaceLayout.TextMeasurer() {
+                        @Override
+                        public float measureHighTemperature(String text, float textSize) {
+                            measurePaint.setTextSize(textSize);
+                            return measurePaint.measureText(text);
+                        }
+                    }, sForecastStripDays);
 
-            mBackgroundPaint = new Paint();
-            mBackgroundPaint.setColor(mResources.getColor(R.color.background_default));
+            mCalendar = Calendar.getInstance();
 
-            mTextPaintTime = mTextPaintHelper.forType(TextPaintHelper.Type.TIME);
-            mTextPaintDate = mTextPaintHelper.forType(TextPaintHelper.Type.DATE);
+            if (BuildConfig.DEBUG) {
+                SunshineDigitalWatchFace.this.registerReceiver(mDumpFrameMetricsReceiver,
+                        new IntentFilter(ACTION_DUMP_FRAME_METRICS), PERMISSION_DUMP_FRAME_METRICS, null);
+            }
 
-            mSeparatorPaint = new Paint();
-            mSeparatorPaint.setColor(mResources.getColor(R.color.digital_text_interactive_secondary));
+            mEngineCreatedAt = SystemClock.elapsedRealtime();
+            startFirstWeatherFrameTimer();
+            restoreCachedWeather();
+        }
 
-            mTextPaintHighTemperature = mTextPaintHelper.forType(TextPaintHelper.Type.HIGH_TEMPERATURE);
-            mTextPaintLowTemperature = mTextPaintHelper.forType(TextPaintHelper.Type.LOW_TEMPERATURE);
+        /**
+         * Shows the last weather received from the phone right away, so the face doesn't need to
+         * wait for a phone round trip after being created.
+         */
+        private void restoreCachedWeather() {
+            mWeatherCache = new WeatherCache(SunshineDigitalWatchFace.this);
+            WeatherPayload cached = mWeatherCache.load();
+            if (cached != null) {
+                updateWeather(cached);
+                updateForecastStrip();
+            }
+            mWeatherTimestamp = mWeatherCache.getDataTimestamp(cached);
+            updateStaleness();
+        }
+
+        /**
+         * Updates whether the displayed weather is stale, which is shown by the separator color.
+         */
+        private void updateStaleness() {
+            boolean stale = !WeatherCache.isFresh(mWeatherTimestamp, System.currentTimeMillis());
+            if (stale != mWeatherStale) {
+                mWeatherStale = stale;
+                adjustSeparator();
+                mStaticLayers.invalidate();
+                invalidate(FrameMetrics.SOURCE_OTHER);
+            }
+        }
 
-            mTime = new Time();
+        private void startFirstWeatherFrameTimer() {
+            mFirstWeatherFrameStart = SystemClock.elapsedRealtime();
+            mFirstWeatherFrameDrawn = false;
         }
 
         @Override
         public void onDestroy() {
             mUpdateTimeHandler.removeMessages(MSG_UPDATE_TIME);
+            mStaticLayers.release();
+            mWeatherIconCache.release();
+            if (mLitPixelsFrame != null) {
+                mLitPixelsFrame.recycle();
+                mLitPixelsFrame = null;
+            }
+            if (BuildConfig.DEBUG) {
+                SunshineDigitalWatchFace.this.unregisterReceiver(mDumpFrameMetricsReceiver);
+            }
             super.onDestroy();
         }
 
@@ -226,6 +367,7 @@ public class SunshineDigitalWatchFace extends CanvasWatchFaceService {
             super.onVisibilityChanged(visible);
 
             if (visible) {
+                startFirstWeatherFrameTimer();
                 connectGoogleApiClient();
 
                 registerTimezoneReceiver();
@@ -245,8 +387,11 @@ public class SunshineDigitalWatchFace extends CanvasWatchFaceService {
 
         private void updateTimeWithTimeZone(String id) {
             // Update time zone in case it changed while we weren't visible.
-            mTime.clear(id);
-            mTime.setToNow();
+            mCalendar.setTimeZone(TimeZone.getTimeZone(id));
+            mCalendar.setTimeInMillis(System.currentTimeMillis());
+            mDateYear = -1;
+            mDateDayOfYear = -1;
+            mStaticLayers.invalidate();
         }
 
         private void connectGoogleApiClient() {
@@ -287,99 +432,27 @@ public class SunshineDigitalWatchFace extends CanvasWatchFaceService {
             mIsRound = insets.isRound();
 
             // TODO: check with instructors a better way to do this.
-            calculateLeftMargin(insets);
-
-            adjustPaintingForTime();
-            adjustPaintingForDate();
-            adjustPaintingForHighTemperature();
-            adjustPaintingForLowTemperature();
-
-            adjustPositioningForWeatherIcon();
-        }
-
-        private void calculateLeftMargin(WindowInsets insets) {
-            boolean isChin = insets.getSystemWindowInsetBottom() > 0;
-            mMarginLeft = 0f;
-            if (isChin) {
-                mMarginLeft = mResources.getDimension(R.dimen.digital_chin_left_margin);
-            }
-        }
-
-        private void adjustPaintingForTime() {
-            if (isInAmbientMode()) {
-                mXOffsetTime = mResources.getDimension(mIsRound ? R.dimen.digital_time_ambient_x_offset_round : R.dimen.digital_time_ambient_x_offset) + mMarginLeft;
-                mTextPaintTime.setColor(mResources.getColor(TextPaintHelper.Type.TIME.getAmbientColor()));
-            } else {
-                mXOffsetTime = mResources.getDimension(mIsRound ? R.dimen.digital_time_interactive_x_offset_round : R.dimen.digital_time_interactive_x_offset) + mMarginLeft;
-                mTextPaintTime.setColor(mResources.getColor(TextPaintHelper.Type.TIME.getInteractiveColor()));
-            }
-
-            float textSizeTime = mResources.getDimension(mIsRound ? R.dimen.digital_time_text_size_round : R.dimen.digital_time_text_size);
-            mTextPaintTime.setTextSize(textSizeTime);
-
-            if (mLowBitAmbient) {
-                mTextPaintTime.setAntiAlias(!mAmbient);
-            }
-        }
-
-        private void adjustPaintingForDate() {
-            if (isInAmbientMode()) {
-                mXOffsetDate = mResources.getDimension(mIsRound ? R.dimen.digital_date_ambient_x_offset_round : R.dimen.digital_date_ambient_x_offset) + mMarginLeft;
-                mTextPaintDate.setColor(mResources.getColor(TextPaintHelper.Type.DATE.getAmbientColor()));
-            } else {
-                mXOffsetDate = mResources.getDimension(mIsRound ? R.dimen.digital_date_interactive_x_offset_round : R.dimen.digital_date_interactive_x_offset) + mMarginLeft;
-                mTextPaintDate.setColor(mResources.getColor(TextPaintHelper.Type.DATE.getInteractiveColor()));
-            }
-
-            float textSizeDate = mResources.getDimension(mIsRound ? R.dimen.digital_date_text_size_round : R.dimen.digital_date_text_size);
-            mTextPaintDate.setTextSize(textSizeDate);
+            boolean hasChin = insets.getSystemWindowInsetBottom() > 0;
+            mLayout.setInsets(mIsRound, hasChin);
+            selectPaints();
 
-            if (mLowBitAmbient) {
-                mTextPaintDate.setAntiAlias(!mAmbient);
-            }
-        }
-
-        private void adjustPaintingForHighTemperature() {
-            if (isInAmbientMode()) {
-                mTextPaintHighTemperature.setColor(mResources.getColor(TextPaintHelper.Type.HIGH_TEMPERATURE.getAmbientColor()));
-            } else {
-                mTextPaintHighTemperature.setColor(mResources.getColor(TextPaintHelper.Type.HIGH_TEMPERATURE.getInteractiveColor()));
-            }
-
-            float textSize = mResources.getDimension(mIsRound ? R.dimen.digital_high_temperature_text_size_round : R.dimen.digital_high_temperature_text_size);
-            mTextPaintHighTemperature.setTextSize(textSize);
-
-            if (mLowBitAmbient) {
-                mTextPaintHighTemperature.setAntiAlias(!mAmbient);
-            }
-        }
-
-        private void adjustPaintingForLowTemperature() {
-            if (isInAmbientMode()) {
-                mXOffsetLowTemperature = mResources.getDimension(mIsRound ? R.dimen.digital_low_temperature_ambient_x_offset_round : R.dimen.digital_low_temperature_ambient_x_offset) + mMarginLeft;
-                mTextPaintLowTemperature.setColor(mResources.getColor(TextPaintHelper.Type.LOW_TEMPERATURE.getAmbientColor()));
-            } else {
-                mXOffsetLowTemperature = mResources.getDimension(mIsRound ? R.dimen.digital_low_temperature_interactive_x_offset_round : R.dimen.digital_low_temperature_interactive_x_offset) + mMarginLeft;
-                mTextPaintLowTemperature.setColor(mResources.getColor(TextPaintHelper.Type.LOW_TEMPERATURE.getInteractiveColor()));
-            }
+            mWeatherIconCache.setSize(mLayout.get(WatchFaceLayout.MODE_INTERACTIVE).weatherIconSize);
+            updateWeatherIcons();
 
-            float textSize = mResources.getDimension(mIsRound ? R.dimen.digital_low_temperature_text_size_round : R.dimen.digital_low_temperature_text_size);
-            mTextPaintLowTemperature.setTextSize(textSize);
-
-            if (mLowBitAmbient) {
-                mTextPaintLowTemperature.setAntiAlias(!mAmbient);
-            }
+            mStaticLayers.invalidate();
         }
 
-        private void adjustPositioningForWeatherIcon() {
-            mXOffsetWeatherIcon = mResources.getDimension(mIsRound ? R.dimen.digital_weather_icon_interactive_x_offset_round : R.dimen.digital_weather_icon_interactive_x_offset) + mMarginLeft;
+        private void selectPaints() {
+            mPaints = mTextPaintHelper.get(mAmbient, mLowBitAmbient, mBurnInProtection, mIsRound);
         }
 
         private void adjustSeparator() {
             if (isInAmbientMode()) {
-                mSeparatorPaint.setColor(mResources.getColor(R.color.digital_text_ambient_primary));
+                mSeparatorPaint.setColor(mSeparatorColorAmbient);
+            } else if (mWeatherStale) {
+                mSeparatorPaint.setColor(mSeparatorColorStale);
             } else {
-                mSeparatorPaint.setColor(mResources.getColor(R.color.digital_text_interactive_secondary));
+                mSeparatorPaint.setColor(mSeparatorColorInteractive);
             }
         }
 
@@ -387,12 +460,37 @@ public class SunshineDigitalWatchFace extends CanvasWatchFaceService {
         public void onPropertiesChanged(Bundle properties) {
             super.onPropertiesChanged(properties);
             mLowBitAmbient = properties.getBoolean(PROPERTY_LOW_BIT_AMBIENT, false);
+            mBurnInProtection = properties.getBoolean(PROPERTY_BURN_IN_PROTECTION, false);
+            selectPaints();
+            updateBurnInShift();
+            updateWeatherIcons();
+            mStaticLayers.invalidate();
         }
 
         @Override
         public void onTimeTick() {
             super.onTimeTick();
-            invalidate();
+            updateStaleness();
+            // In interactive mode the timer already redraws every second.
+            if (mAmbient) {
+                updateBurnInShift();
+                invalidate(FrameMetrics.SOURCE_TIME_TICK);
+            }
+        }
+
+        /**
+         * Moves the ambient screen to the next burn-in protection offset, based on the current
+         * minute.
+         */
+        private void updateBurnInShift() {
+            if (mAmbient && mBurnInProtection) {
+                int[] shift = sBurnInShifts[(int) ((System.currentTimeMillis() / TimeUnit.MINUTES.toMillis(1)) % sBurnInShifts.length)];
+                mShiftX = shift[0] * mBurnInShift;
+                mShiftY = shift[1] * mBurnInShift;
+            } else {
+                mShiftX = 0;
+                mShiftY = 0;
+            }
         }
 
         @Override
@@ -401,13 +499,13 @@ public class SunshineDigitalWatchFace extends CanvasWatchFaceService {
             if (mAmbient != inAmbientMode) {
                 mAmbient = inAmbientMode;
 
-                adjustPaintingForTime();
-                adjustPaintingForDate();
-                adjustPaintingForHighTemperature();
-                adjustPaintingForLowTemperature();
+                selectPaints();
                 adjustSeparator();
+                updateBurnInShift();
 
-                invalidate();
+                mFrameMetrics.setMode(mAmbient ? FrameMetrics.MODE_AMBIENT : FrameMetrics.MODE_INTERACTIVE,
+                        SystemClock.elapsedRealtime());
+                invalidate(FrameMetrics.SOURCE_MODE);
             }
 
             // Whether the timer should be running depends on whether we're visible (as well as
@@ -434,50 +532,217 @@ public class SunshineDigitalWatchFace extends CanvasWatchFaceService {
                     mTapCount++;
                     mBackgroundPaint.setColor(resources.getColor(mTapCount % 2 == 0 ?
                             R.color.background_default : R.color.background_tapped));
+                    mStaticLayers.invalidate();
                     break;
             }
-            invalidate();
+            invalidate(FrameMetrics.SOURCE_TAP);
         }
 
         @Override
         public void onDraw(Canvas canvas, Rect bounds) {
-            // Draw the background.
-            if (isInAmbientMode()) {
+            long drawStart = System.nanoTime();
+
+            mCalendar.setTimeInMillis(System.currentTimeMillis());
+            if (updateDateText()) {
+                mStaticLayers.invalidate();
+            }
+
+            // Background, date, separator and weather only change with the data, so they are
+            // drawn from a cached layer.
+            int layer = isInAmbientMode() ? LAYER_AMBIENT : LAYER_INTERACTIVE;
+            Bitmap staticLayer = mStaticLayers.get(layer, bounds.width(), bounds.height(), this);
+
+            boolean shifted = mShiftX != 0 || mShiftY != 0;
+            if (shifted) {
+                // The shifted layer doesn't cover the whole screen.
                 canvas.drawColor(Color.BLACK);
-            } else {
-                canvas.drawRect(0, 0, bounds.width(), bounds.height(), mBackgroundPaint);
+                canvas.save();
+                canvas.translate(mShiftX, mShiftY);
             }
+            canvas.drawBitmap(staticLayer, 0, 0, null);
 
             // Draw H:MM in ambient mode or H:MM:SS in interactive mode.
-            mTime.setToNow();
+            mTimeText.set(mCalendar.get(Calendar.HOUR_OF_DAY), mCalendar.get(Calendar.MINUTE),
+                    mCalendar.get(Calendar.SECOND), !mAmbient);
+            WatchFaceLayout.Frame frame = mLayout.get(mAmbient ? WatchFaceLayout.MODE_AMBIENT : WatchFaceLayout.MODE_INTERACTIVE);
+            canvas.drawText(mTimeText.getChars(), 0, mTimeText.length(), frame.timeX, frame.timeY, mPaints.time);
+            if (shifted) {
+                canvas.restore();
+            }
 
-            String timeText = mAmbient
-                    ? String.format("%02d:%02d", mTime.hour, mTime.minute)
-                    : String.format("%02d:%02d:%02d", mTime.hour, mTime.minute, mTime.second);
-            canvas.drawText(timeText, mXOffsetTime, mYOffsetTime, mTextPaintTime);
+            if (!mFirstWeatherFrameDrawn && mHighTemperature != null) {
+                mFirstWeatherFrameDrawn = true;
+                Log.d(LOG_TAG, "Time to first weather frame: "
+                        + (SystemClock.elapsedRealtime() - mFirstWeatherFrameStart) + " ms");
+            }
 
-            String dateText = DateFormat.format(sDateFormat, mTime.toMillis(false)).toString().toUpperCase();
-            canvas.drawText(dateText, mXOffsetDate, mYOffsetDate, mTextPaintDate);
+            mFrameMetrics.recordFrame(layer == LAYER_AMBIENT ? FrameMetrics.MODE_AMBIENT : FrameMetrics.MODE_INTERACTIVE,
+                    System.nanoTime() - drawStart);
 
-            canvas.drawLine(bounds.centerX() - (sSeparatorWidth / 2), mYOffsetSeparator, bounds.centerX() + (sSeparatorWidth / 2), mYOffsetSeparator, mSeparatorPaint);
+            // Outside the measured draw time, so the scan doesn't skew it.
+            if (BuildConfig.DEBUG) {
+                measureLitPixels(layer, staticLayer, frame);
+            }
+        }
 
-            if (!isInAmbientMode()) {
-                if (mWeatherIcon != null) {
-                    float iconYOffset = mYOffsetWeatherIcon - mWeatherIcon.getHeight();
-                    canvas.drawBitmap(mWeatherIcon, mXOffsetWeatherIcon, iconYOffset, null);
-                }
+        /**
+         * Renders everything but the time, into one of the {@link #mStaticLayers}.
+         */
+        @Override
+        public void render(Canvas canvas, int layer, int width, int height) {
+            // Draw the background.
+            if (layer == LAYER_AMBIENT) {
+                canvas.drawColor(Color.BLACK);
+            } else {
+                canvas.drawRect(0, 0, width, height, mBackgroundPaint);
+            }
+
+            mLayout.setWidth(width);
+            WatchFaceLayout.Frame frame = mLayout.get(layer == LAYER_AMBIENT ? WatchFaceLayout.MODE_AMBIENT : WatchFaceLayout.MODE_INTERACTIVE);
+            TextPaintHelper.PaintSet paints = mTextPaintHelper.get(layer == LAYER_AMBIENT, mLowBitAmbient, mBurnInProtection, mIsRound);
+
+            canvas.drawText(mDateText, frame.dateX, frame.dateY, paints.date);
+
+            float centerX = width / 2f;
+            canvas.drawLine(centerX - (sSeparatorWidth / 2), frame.separatorY, centerX + (sSeparatorWidth / 2), frame.separatorY, mSeparatorPaint);
+
+            // The icon is a solid block of pixels, which displays that can burn in don't show in
+            // ambient mode.
+            Bitmap weatherIcon = layer == LAYER_AMBIENT ? (mBurnInProtection ? null : mWeatherIconAmbient) : mWeatherIcon;
+            if (weatherIcon != null) {
+                canvas.drawBitmap(weatherIcon, frame.weatherIconX, frame.weatherIconY - weatherIcon.getHeight(), null);
             }
 
             if (mHighTemperature != null && mHighTemperature.length() > 0) {
-                float xOffset = (canvas.getWidth() / 2) - (mTextPaintHighTemperature.measureText(mHighTemperature) / 2);
-                canvas.drawText(mHighTemperature, xOffset, mYOffsetHighTemperature, mTextPaintHighTemperature);
+                canvas.drawText(mHighTemperature, frame.highTemperatureX, frame.highTemperatureY, paints.highTemperature);
             }
 
             if (mLowTemperature != null && mLowTemperature.length() > 0) {
-                canvas.drawText(mLowTemperature, mXOffsetLowTemperature, mYOffsetLowTemperature, mTextPaintLowTemperature);
+                canvas.drawText(mLowTemperature, frame.lowTemperatureX, frame.lowTemperatureY, paints.lowTemperature);
+            }
+
+            if (layer == LAYER_INTERACTIVE) {
+                for (int i = 0; i < mForecastCount; i++) {
+                    float xOffset = frame.forecastColumnWidth * (i + 1);
+                    canvas.drawText(mForecastLabels[i], xOffset, frame.forecastLabelY, paints.forecast);
+                    canvas.drawText(mForecastTemperatures[i], xOffset, frame.forecastTemperatureY, paints.forecast);
+                }
             }
         }
 
+        /**
+         * Counts the lit pixels of the frame, the static layer with the time drawn over it, to
+         * compare how much of the screen each mode lights. Done when the static layer is rendered
+         * again and, in ambient mode, once a minute as the time changes. Only done in debug builds.
+         */
+        private void measureLitPixels(int layer, Bitmap staticLayer, WatchFaceLayout.Frame frame) {
+            int renderCount = mStaticLayers.getRenderCount();
+            int minute = mCalendar.get(Calendar.MINUTE);
+            boolean minuteChanged = layer == LAYER_AMBIENT && minute != mLitPixelsMinute;
+            if (renderCount == mLitPixelsRenderCount && !minuteChanged) {
+                return;
+            }
+            mLitPixelsRenderCount = renderCount;
+            mLitPixelsMinute = minute;
+
+            int width = staticLayer.getWidth();
+            int height = staticLayer.getHeight();
+            if (mLitPixelsFrame == null || mLitPixelsFrame.getWidth() != width
+                    || mLitPixelsFrame.getHeight() != height) {
+                if (mLitPixelsFrame != null) {
+                    mLitPixelsFrame.recycle();
+                }
+                mLitPixelsFrame = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+                mLitPixelsCanvas = new Canvas(mLitPixelsFrame);
+                mLitPixelsRow = new int[width];
+            }
+            // The burn-in shift moves what is lit without changing how much is.
+            mLitPixelsCanvas.drawBitmap(staticLayer, 0, 0, null);
+            mLitPixelsCanvas.drawText(mTimeText.getChars(), 0, mTimeText.length(), frame.timeX,
+                    frame.timeY, mPaints.time);
+
+            int lit = 0;
+            for (int y = 0; y < height; y++) {
+                mLitPixelsFrame.getPixels(mLitPixelsRow, 0, width, 0, y, width, 1);
+                for (int x = 0; x < width; x++) {
+                    if ((mLitPixelsRow[x] & 0x00ffffff) != 0) {
+                        lit++;
+                    }
+                }
+            }
+            mFrameMetrics.recordLitPixels(layer == LAYER_AMBIENT ? FrameMetrics.MODE_AMBIENT : FrameMetrics.MODE_INTERACTIVE,
+                    lit, width * height);
+        }
+
+        /**
+         * Asks for a redraw, counting what asked for it.
+         */
+        private void invalidate(int source) {
+            mFrameMetrics.recordInvalidate(source);
+            invalidate();
+        }
+
+        /**
+         * Logs the frame metrics and syncs them to the phone as the {@link #FRAME_METRICS_PATH}
+         * DataItem, for analysis.
+         */
+        private void dumpFrameMetrics(boolean reset) {
+            long now = SystemClock.elapsedRealtime();
+            Log.i(LOG_TAG, mFrameMetrics.dump(now) + "\nstatic layers rendered "
+                    + mStaticLayers.getRenderCount() + " times, layout computed "
+                    + mLayout.getComputeCount() + " times");
+
+            if (mGoogleApiClient.isConnected()) {
+                PutDataMapRequest request = PutDataMapRequest.create(FRAME_METRICS_PATH);
+                DataMap dataMap = request.getDataMap();
+                dataMap.putLong("duration_ms", now - mFrameMetrics.getStartedAt());
+                dataMap.putLong("dumped_at", System.currentTimeMillis());
+                for (int mode = 0; mode < FrameMetrics.getModeCount(); mode++) {
+                    String prefix = FrameMetrics.getModeName(mode) + "_";
+                    int[] histogram = new int[FrameMetrics.BUCKET_COUNT];
+                    for (int bucket = 0; bucket < histogram.length; bucket++) {
+                        histogram[bucket] = mFrameMetrics.getHistogramCount(mode, bucket);
+                    }
+                    dataMap.putIntegerArrayList(prefix + "histogram", toArrayList(histogram));
+                    dataMap.putLong(prefix + "frames", mFrameMetrics.getFrameCount(mode));
+                    dataMap.putLong(prefix + "time_ms", mFrameMetrics.getTimeInModeMs(mode, now));
+                    dataMap.putLong(prefix + "average_draw_ns", mFrameMetrics.getAverageDrawTimeNs(mode));
+                }
+                for (int source = 0; source < FrameMetrics.getSourceCount(); source++) {
+                    dataMap.putLong("invalidate_" + FrameMetrics.getSourceName(source),
+                            mFrameMetrics.getInvalidateCount(source));
+                }
+                Wearable.DataApi.putDataItem(mGoogleApiClient, request.asPutDataRequest());
+            }
+
+            if (reset) {
+                mFrameMetrics.reset(now);
+            }
+        }
+
+        private ArrayList<Integer> toArrayList(int[] values) {
+            ArrayList<Integer> list = new ArrayList<>(values.length);
+            for (int value : values) {
+                list.add(value);
+            }
+            return list;
+        }
+
+        /**
+         * @return true if the date text changed.
+         */
+        private boolean updateDateText() {
+            int year = mCalendar.get(Calendar.YEAR);
+            int dayOfYear = mCalendar.get(Calendar.DAY_OF_YEAR);
+            if (mDateText == null || year != mDateYear || dayOfYear != mDateDayOfYear) {
+                mDateText = DateFormat.format(sDateFormat, mCalendar).toString().toUpperCase();
+                mDateYear = year;
+                mDateDayOfYear = dayOfYear;
+                return true;
+            }
+            return false;
+        }
+
         /**
          * Starts the {@link #mUpdateTimeHandler} timer if it should be running and isn't currently
          * or stops it if it shouldn't be running but currently is.
@@ -501,7 +766,7 @@ public class SunshineDigitalWatchFace extends CanvasWatchFaceService {
          * Handle updating the time periodically in interactive mode.
          */
         private void handleUpdateTimeMessage() {
-            invalidate();
+            invalidate(FrameMetrics.SOURCE_TIMER);
             if (shouldTimerBeRunning()) {
                 long timeMs = System.currentTimeMillis();
                 long delayMs = INTERACTIVE_UPDATE_RATE_MS - (timeMs % INTERACTIVE_UPDATE_RATE_MS);
@@ -511,54 +776,128 @@ public class SunshineDigitalWatchFace extends CanvasWatchFaceService {
 
         @Override
         public void onDataChanged(DataEventBuffer dataEventBuffer) {
+            boolean forecastChanged = false;
             for (DataEvent dataEvent : dataEventBuffer) {
-                if (dataEvent.getType() != DataEvent.TYPE_CHANGED) {
+                DataItem dataItem = dataEvent.getDataItem();
+                String path = dataItem.getUri().getPath();
+                Log.d(LOG_TAG, "onDataChanged - path:" + path);
+
+                if (ForecastDay.isForecastPath(path)) {
+                    if (dataEvent.getType() == DataEvent.TYPE_DELETED) {
+                        removeForecastDay(dataItem);
+                    } else {
+                        updateForecastDay(dataItem);
+                    }
+                    forecastChanged = true;
                     continue;
                 }
 
-                Log.d(LOG_TAG, "onDataChanged - dataEvent:" + dataEvent);
-                Log.d(LOG_TAG, "onDataChanged - dataEvent.getDataItem():" + dataEvent.getDataItem());
+                if (dataEvent.getType() != DataEvent.TYPE_CHANGED || !path.equals(WeatherPayload.PATH)) {
+                    continue;
+                }
 
-                DataMap dataMap = DataMapItem.fromDataItem(dataEvent.getDataItem()).getDataMap();
+                WeatherPayload payload = WeatherPayload.fromByteArray(dataItem.getData());
+                if (payload == null) {
+                    Log.d(LOG_TAG, "Ignoring unreadable weather payload.");
+                    continue;
+                }
 
-                Log.d(LOG_TAG, "onDataChanged - dataMap:" + dataMap);
+                Log.d(LOG_TAG, "Weather payload received " + (System.currentTimeMillis() - payload.publishedAt)
+                        + " ms after being published, " + payload.getDayCount() + " days.");
 
-                Log.d(LOG_TAG, "onDataChanged - dataMap.keySet():" + dataMap.keySet());
+                mWeatherCache.save(dataItem.getData());
+                mWeatherTimestamp = mWeatherCache.getDataTimestamp(payload);
 
+                updateWeather(payload);
+                updateStaleness();
+                forecastChanged = true;
+            }
 
-                String path = dataEvent.getDataItem().getUri().getPath();
-                Log.d(LOG_TAG, "onDataChanged - path:" + path);
+            if (forecastChanged) {
+                updateForecastStrip();
+                mStaticLayers.invalidate();
+                invalidate(FrameMetrics.SOURCE_DATA);
+            }
+        }
 
-                if (!path.equals(sCurrentWeatherPath)) {
-                    continue;
-                }
+        private void updateWeather(WeatherPayload payload) {
+            mIsMetric = payload.isMetric;
 
-                if (dataMap.containsKey(sKeyWeatherId)) {
-                    int weatherId = dataMap.getInt(sKeyWeatherId);
-                    Drawable b = getResources().getDrawable(Utility.getIconResourceForWeatherCondition(weatherId));
-                    mWeatherIcon = ((BitmapDrawable) b).getBitmap();
-                } else {
-                    mWeatherIcon = null;
-                    Log.d(LOG_TAG, "No weatherId available!");
-                }
+            if (payload.getDayCount() == 0) {
+                mWeatherIconResourceId = -1;
+                updateWeatherIcons();
+                mHighTemperature = null;
+                mLowTemperature = null;
+                mLayout.setHighTemperature(null);
+                Log.d(LOG_TAG, "No weather available!");
+                return;
+            }
 
+            mToday = payload.firstDay;
 
-                if (dataMap.containsKey(sKeyHighTemperature)) {
-                    mHighTemperature = dataMap.getString(sKeyHighTemperature);
-                    Log.d(LOG_TAG, "High temperature: " + mHighTemperature);
-                } else {
-                    Log.d(LOG_TAG, "No high temperature available!");
-                }
+            mWeatherIconResourceId = Utility.getIconResourceForWeatherCondition(payload.weatherIds[0]);
+            if (mWeatherIconResourceId == -1) {
+                Log.d(LOG_TAG, "No icon for weatherId " + payload.weatherIds[0]);
+            }
+            updateWeatherIcons();
 
-                if (dataMap.containsKey(sKeyLowTemperature)) {
-                    mLowTemperature = dataMap.getString(sKeyLowTemperature);
-                    Log.d(LOG_TAG, "Low temperature: " + mLowTemperature);
-                } else {
-                    Log.d(LOG_TAG, "No low temperature available!");
-                }
+            mHighTemperature = Utility.formatTemperature(SunshineDigitalWatchFace.this, payload.highs[0], payload.isMetric);
+            mLowTemperature = Utility.formatTemperature(SunshineDigitalWatchFace.this, payload.lows[0], payload.isMetric);
+            mLayout.setHighTemperature(mHighTemperature);
+        }
+
+        /**
+         * Picks the current icon from the {@link #mWeatherIconCache}, loading it in the background
+         * if it isn't there yet. {@link #mWeatherIconCallback} calls back here once it's loaded.
+         */
+        private void updateWeatherIcons() {
+            if (mWeatherIconResourceId == -1) {
+                mWeatherIcon = null;
+                mWeatherIconAmbient = null;
+                return;
+            }
+
+            mWeatherIcon = mWeatherIconCache.get(mWeatherIconResourceId, WeatherIconCache.VARIANT_INTERACTIVE);
+            mWeatherIconAmbient = mWeatherIconCache.get(mWeatherIconResourceId,
+                    mLowBitAmbient ? WeatherIconCache.VARIANT_LOW_BIT : WeatherIconCache.VARIANT_AMBIENT);
+            if (mWeatherIcon == null || mWeatherIconAmbient == null) {
+                mWeatherIconCache.load(mWeatherIconResourceId, mWeatherIconCallback);
+            }
+        }
+
+        private void updateForecastDay(DataItem dataItem) {
+            ForecastDay day = ForecastDay.fromByteArray(dataItem.getData());
+            if (day == null) {
+                Log.d(LOG_TAG, "Ignoring unreadable forecast day: " + dataItem.getUri());
+                return;
+            }
+            mForecastDays.put(day.date, day);
+        }
 
-                invalidate();
+        private void removeForecastDay(DataItem dataItem) {
+            try {
+                mForecastDays.remove(Long.parseLong(dataItem.getUri().getLastPathSegment()));
+            } catch (NumberFormatException e) {
+                Log.d(LOG_TAG, "Unexpected forecast path: " + dataItem.getUri());
+            }
+        }
+
+        /**
+         * Formats the labels of the forecast strip, so that {@link #onDraw} only has to draw them.
+         */
+        private void updateForecastStrip() {
+            int count = 0;
+            for (ForecastDay day : mForecastDays.tailMap(mToday, false).values()) {
+                if (count == sForecastStripDays) {
+                    break;
+                }
+                mForecastLabels[count] = DateFormat.format(sForecastDayFormat, day.date).toString().toUpperCase();
+                mForecastTemperatures[count] =
+                        Utility.formatTemperature(SunshineDigitalWatchFace.this, day.high, mIsMetric) + "/"
+                                + Utility.formatTemperature(SunshineDigitalWatchFace.this, day.low, mIsMetric);
+                count++;
             }
+            mForecastCount = count;
         }
 
         @Override
@@ -566,27 +905,91 @@ public class SunshineDigitalWatchFace extends CanvasWatchFaceService {
             Log.d(LOG_TAG, "onConnected");
 
             Wearable.DataApi.addListener(mGoogleApiClient, Engine.this);
-            requestCurrentWeatherInfo();
+            loadForecastDays();
+
+            mConnectionCount++;
+            long now = System.currentTimeMillis();
+            if (WeatherCache.isFresh(mWeatherTimestamp, now)) {
+                Log.d(LOG_TAG, "Cached weather is fresh, not requesting it from the phone.");
+            } else if (!mWeatherCache.canRequest(now)) {
+                Log.d(LOG_TAG, "Weather was requested recently, not requesting it again.");
+            } else {
+                requestCurrentWeatherInfo();
+            }
+            logRequestRate();
         }
 
-        public void requestCurrentWeatherInfo() {
-            PutDataMapRequest putDataMapRequest = PutDataMapRequest.create(sWeatherPath);
-            putDataMapRequest.getDataMap().putString(sKeyUuid, UUID.randomUUID().toString());
-            final PutDataRequest request = putDataMapRequest.asPutDataRequest();
+        /**
+         * Loads the forecast days already synced to this device. Afterwards, only the days the
+         * phone re-publishes are delivered through {@link #onDataChanged}.
+         */
+        private void loadForecastDays() {
+            Uri forecastUri = new Uri.Builder()
+                    .scheme(PutDataRequest.WEAR_URI_SCHEME)
+                    .path(ForecastDay.PATH_PREFIX)
+                    .build();
+            Wearable.DataApi.getDataItems(mGoogleApiClient, forecastUri, DataApi.FILTER_PREFIX)
+                    .setResultCallback(new ResultCallback<DataItemBuffer>() {
+                        @Override
+                        public void onResult(DataItemBuffer dataItems) {
+                            try {
+                                for (DataItem dataItem : dataItems) {
+                                    updateForecastDay(dataItem);
+                                }
+                            } finally {
+                                dataItems.release();
+                            }
+                            updateForecastStrip();
+                            mStaticLayers.invalidate();
+                            invalidate(FrameMetrics.SOURCE_DATA);
+                        }
+                    });
+        }
 
-            Wearable.DataApi.putDataItem(mGoogleApiClient, request)
-                    .setResultCallback(new ResultCallback<DataApi.DataItemResult>() {
+        /**
+         * Asks the phone for weather newer than what we have, with a one-shot message to each
+         * connected node. The phone answers by publishing the {@link WeatherPayload#PATH}
+         * DataItem, or doesn't answer at all if it has nothing newer.
+         */
+        public void requestCurrentWeatherInfo() {
+            final byte[] request = WeatherPayload.encodeRequest(mWeatherTimestamp);
+            Wearable.NodeApi.getConnectedNodes(mGoogleApiClient)
+                    .setResultCallback(new ResultCallback<NodeApi.GetConnectedNodesResult>() {
                         @Override
-                        public void onResult(DataApi.DataItemResult dataItemResult) {
-                            if (dataItemResult.getStatus().isSuccess()) {
-                                Log.d(LOG_TAG, "Current weather data requested successfully to path: " + request.getUri());
-                            } else {
-                                Log.d(LOG_TAG, "Failed to request current weather data.");
+                        public void onResult(NodeApi.GetConnectedNodesResult result) {
+                            for (Node node : result.getNodes()) {
+                                mRequestCount++;
+                                Wearable.MessageApi.sendMessage(mGoogleApiClient, node.getId(),
+                                        WeatherPayload.REQUEST_PATH, request)
+                                        .setResultCallback(new ResultCallback<MessageApi.SendMessageResult>() {
+                                            @Override
+                                            public void onResult(MessageApi.SendMessageResult sendMessageResult) {
+                                                if (sendMessageResult.getStatus().isSuccess()) {
+                                                    mWeatherCache.recordRequest(System.currentTimeMillis());
+                                                    Log.d(LOG_TAG, "Current weather data requested successfully.");
+                                                } else {
+                                                    Log.d(LOG_TAG, "Failed to request current weather data.");
+                                                }
+                                            }
+                                        });
                             }
                         }
                     });
         }
 
+        /**
+         * Logs how many requests reach the phone per hour. Before requests were made conditional,
+         * every connection was a request.
+         */
+        private void logRequestRate() {
+            double hours = (SystemClock.elapsedRealtime() - mEngineCreatedAt) / (double) TimeUnit.HOURS.toMillis(1);
+            if (hours <= 0) {
+                return;
+            }
+            Log.d(LOG_TAG, String.format("Weather requests per hour: %.1f (connections per hour: %.1f)",
+                    mRequestCount / hours, mConnectionCount / hours));
+        }
+
         @Override
         public void onConnectionSuspended(int cause) {
             Log.d(LOG_TAG, "onConnectionSuspended - cause: " + cause);
@@ -15,7 +15,26 @@
  */
 package com.example.android.sunshine.app;
 
+import android.content.Context;
+
+import com.example.android.sunshine.common.WeatherCondition;
+
 public class Utility {
+    /**
+     * Formats a temperature received from the phone, which always sends Celsius values.
+     *
+     * @param context     Context to use for retrieving the format
+     * @param temperature temperature in degrees Celsius
+     * @param isMetric    whether the user prefers metric units
+     * @return the formatted temperature, without tenths of a degree.
+     */
+    public static String formatTemperature(Context context, double temperature, boolean isMetric) {
+        if (!isMetric) {
+            temperature = (temperature * 1.8) + 32;
+        }
+        return String.format(context.getString(R.string.format_temperature), temperature);
+    }
+
     /**
      * Helper method to provide the icon resource id according to the weather condition id returned
      * by the OpenWeatherMap call.
@@ -24,30 +43,27 @@ public class Utility {
      * @return resource id for the corresponding icon. -1 if no relation is found.
      */
     public static int getIconResourceForWeatherCondition(int weatherId) {
-        // Based on weather code data found at:
-        // http://bugs.openweathermap.org/projects/api/wiki/Weather_Condition_Codes
-        if (weatherId >= 200 && weatherId <= 232) {
-            return R.drawable.ic_storm;
-        } else if (weatherId >= 300 && weatherId <= 321) {
-            return R.drawable.ic_light_rain;
-        } else if (weatherId >= 500 && weatherId <= 504) {
-            return R.drawable.ic_rain;
-        } else if (weatherId == 511) {
-            return R.drawable.ic_snow;
-        } else if (weatherId >= 520 && weatherId <= 531) {
-            return R.drawable.ic_rain;
-        } else if (weatherId >= 600 && weatherId <= 622) {
-            return R.drawable.ic_snow;
-        } else if (weatherId >= 701 && weatherId <= 761) {
-            return R.drawable.ic_fog;
-        } else if (weatherId == 761 || weatherId == 781) {
-            return R.drawable.ic_storm;
-        } else if (weatherId == 800) {
-            return R.drawable.ic_clear;
-        } else if (weatherId == 801) {
-            return R.drawable.ic_light_clouds;
-        } else if (weatherId >= 802 && weatherId <= 804) {
-            return R.drawable.ic_cloudy;
+        WeatherCondition condition = WeatherCondition.forWeatherId(weatherId);
+        if (condition == null) {
+            return -1;
+        }
+        switch (condition) {
+            case STORM:
+                return R.drawable.ic_storm;
+            case LIGHT_RAIN:
+                return R.drawable.ic_light_rain;
+            case RAIN:
+                return R.drawable.ic_rain;
+            case SNOW:
+                return R.drawable.ic_snow;
+            case FOG:
+                return R.drawable.ic_fog;
+            case CLEAR:
+                return R.drawable.ic_clear;
+            case LIGHT_CLOUDS:
+                return R.drawable.ic_light_clouds;
+            case CLOUDS:
+                return R.drawable.ic_cloudy;
         }
         return -1;
     }
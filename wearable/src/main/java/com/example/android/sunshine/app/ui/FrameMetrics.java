@@ -0,0 +1,212 @@
+package com.example.android.sunshine.app.ui;
+
+import java.util.Arrays;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Records how long watch face frames take to draw and what asked for them, without allocating
+ * while recording. Draw times go into a histogram per display mode and a ring buffer of the most
+ * recent frames; invalidations are counted per source. Only {@link #dump(long)} allocates.
+ */
+public class FrameMetrics {
+    public static final int MODE_INTERACTIVE = 0;
+    public static final int MODE_AMBIENT = 1;
+    private static final int MODE_COUNT = 2;
+
+    public static final int SOURCE_TIME_TICK = 0;
+    public static final int SOURCE_TIMER = 1;
+    public static final int SOURCE_TAP = 2;
+    public static final int SOURCE_DATA = 3;
+    public static final int SOURCE_MODE = 4;
+    public static final int SOURCE_OTHER = 5;
+    private static final int SOURCE_COUNT = 6;
+
+    private static final String[] sModeNames = {"interactive", "ambient"};
+    private static final String[] sSourceNames = {"time_tick", "timer", "tap", "data", "mode", "other"};
+
+    /**
+     * Upper bounds, in microseconds, of the draw time histogram buckets. The last bucket holds
+     * everything slower.
+     */
+    private static final long[] sBucketUpperBoundsUs = {250, 500, 1000, 2000, 4000, 8000, 16000};
+    public static final int BUCKET_COUNT = sBucketUpperBoundsUs.length + 1;
+
+    private static final int sRecentFrames = 256;
+
+    private final int[][] mHistogram = new int[MODE_COUNT][BUCKET_COUNT];
+    private final long[] mFrameCount = new long[MODE_COUNT];
+    private final long[] mDrawTimeTotalNs = new long[MODE_COUNT];
+    private final long[] mTimeInModeMs = new long[MODE_COUNT];
+    private final long[] mInvalidateCount = new long[SOURCE_COUNT];
+    private final float[] mLitRatio = new float[MODE_COUNT];
+
+    private final long[] mRecentDrawTimeNs = new long[sRecentFrames];
+    private int mRecentIndex;
+    private int mRecentCount;
+
+    private long mStartedAt;
+    private int mMode = MODE_INTERACTIVE;
+    private long mModeSince;
+
+    public FrameMetrics(long now) {
+        reset(now);
+    }
+
+    public void reset(long now) {
+        for (int mode = 0; mode < MODE_COUNT; mode++) {
+            Arrays.fill(mHistogram[mode], 0);
+        }
+        Arrays.fill(mFrameCount, 0);
+        Arrays.fill(mDrawTimeTotalNs, 0);
+        Arrays.fill(mTimeInModeMs, 0);
+        Arrays.fill(mInvalidateCount, 0);
+        Arrays.fill(mLitRatio, 0f);
+        mRecentIndex = 0;
+        mRecentCount = 0;
+        mStartedAt = now;
+        mModeSince = now;
+    }
+
+    /**
+     * Tracks how long the face spends in each mode, so frame counts can be reported per hour.
+     */
+    public void setMode(int mode, long now) {
+        if (mode != mMode) {
+            mTimeInModeMs[mMode] += now - mModeSince;
+            mMode = mode;
+            mModeSince = now;
+        }
+    }
+
+    public void recordInvalidate(int source) {
+        mInvalidateCount[source]++;
+    }
+
+    public void recordFrame(int mode, long drawTimeNs) {
+        mHistogram[mode][bucketFor(drawTimeNs)]++;
+        mFrameCount[mode]++;
+        mDrawTimeTotalNs[mode] += drawTimeNs;
+
+        mRecentDrawTimeNs[mRecentIndex] = drawTimeNs;
+        mRecentIndex = (mRecentIndex + 1) % sRecentFrames;
+        if (mRecentCount < sRecentFrames) {
+            mRecentCount++;
+        }
+    }
+
+    /**
+     * Records the share of lit pixels in the last measured frame of {@code mode}, to
+     * compare how much of the screen each mode lights.
+     */
+    public void recordLitPixels(int mode, int litPixels, int totalPixels) {
+        mLitRatio[mode] = totalPixels == 0 ? 0f : (float) litPixels / totalPixels;
+    }
+
+    public float getLitRatio(int mode) {
+        return mLitRatio[mode];
+    }
+
+    public long getFrameCount(int mode) {
+        return mFrameCount[mode];
+    }
+
+    public long getInvalidateCount(int source) {
+        return mInvalidateCount[source];
+    }
+
+    public int getHistogramCount(int mode, int bucket) {
+        return mHistogram[mode][bucket];
+    }
+
+    public long getAverageDrawTimeNs(int mode) {
+        return mFrameCount[mode] == 0 ? 0 : mDrawTimeTotalNs[mode] / mFrameCount[mode];
+    }
+
+    public long getTimeInModeMs(int mode, long now) {
+        return mTimeInModeMs[mode] + (mode == mMode ? now - mModeSince : 0);
+    }
+
+    public long getFramesPerHour(int mode, long now) {
+        long timeInMode = getTimeInModeMs(mode, now);
+        return timeInMode == 0 ? 0 : mFrameCount[mode] * TimeUnit.HOURS.toMillis(1) / timeInMode;
+    }
+
+    /**
+     * @param percentile between 0 and 100
+     * @return the draw time at {@code percentile} over the most recent frames, 0 if none.
+     */
+    public long getRecentPercentileNs(int percentile) {
+        if (mRecentCount == 0) {
+            return 0;
+        }
+        long[] sorted = Arrays.copyOf(mRecentDrawTimeNs, mRecentCount);
+        Arrays.sort(sorted);
+        int index = Math.min(mRecentCount - 1, (int) ((long) percentile * mRecentCount / 100));
+        return sorted[index];
+    }
+
+    public long getStartedAt() {
+        return mStartedAt;
+    }
+
+    public static int getModeCount() {
+        return MODE_COUNT;
+    }
+
+    public static int getSourceCount() {
+        return SOURCE_COUNT;
+    }
+
+    public static String getModeName(int mode) {
+        return sModeNames[mode];
+    }
+
+    public static String getSourceName(int source) {
+        return sSourceNames[source];
+    }
+
+    /**
+     * @return the upper bound of {@code bucket} in microseconds, or -1 for the last bucket.
+     */
+    public static long getBucketUpperBoundUs(int bucket) {
+        return bucket < sBucketUpperBoundsUs.length ? sBucketUpperBoundsUs[bucket] : -1;
+    }
+
+    public String dump(long now) {
+        StringBuilder builder = new StringBuilder();
+        builder.append("Frame metrics over ").append((now - mStartedAt) / 1000).append(" s\n");
+        for (int mode = 0; mode < MODE_COUNT; mode++) {
+            builder.append(sModeNames[mode])
+                    .append(": frames=").append(mFrameCount[mode])
+                    .append(", frames/h=").append(getFramesPerHour(mode, now))
+                    .append(", avg=").append(getAverageDrawTimeNs(mode) / 1000).append(" us")
+                    .append(", lit=").append(Math.round(mLitRatio[mode] * 1000) / 10f).append('%')
+                    .append(", histogram=");
+            for (int bucket = 0; bucket < BUCKET_COUNT; bucket++) {
+                long upperBound = getBucketUpperBoundUs(bucket);
+                builder.append(bucket == 0 ? "" : " ")
+                        .append(upperBound < 0 ? "more" : "<" + upperBound + "us")
+                        .append(':').append(mHistogram[mode][bucket]);
+            }
+            builder.append('\n');
+        }
+        builder.append("recent: p50=").append(getRecentPercentileNs(50) / 1000)
+                .append(" us, p90=").append(getRecentPercentileNs(90) / 1000)
+                .append(" us, p99=").append(getRecentPercentileNs(99) / 1000).append(" us\n");
+        builder.append("invalidates:");
+        for (int source = 0; source < SOURCE_COUNT; source++) {
+            builder.append(' ').append(sSourceNames[source]).append('=').append(mInvalidateCount[source]);
+        }
+        return builder.toString();
+    }
+
+    private static int bucketFor(long drawTimeNs) {
+        long drawTimeUs = drawTimeNs / 1000;
+        for (int bucket = 0; bucket < sBucketUpperBoundsUs.length; bucket++) {
+            if (drawTimeUs < sBucketUpperBoundsUs[bucket]) {
+                return bucket;
+            }
+        }
+        return sBucketUpperBoundsUs.length;
+    }
+}
@@ -0,0 +1,80 @@
+package com.example.android.sunshine.app.ui;
+
+import android.graphics.Bitmap;
+import android.graphics.Canvas;
+
+/**
+ * Offscreen bitmaps holding the parts of the watch face that don't change every frame, one per
+ * display mode (e.g. interactive and ambient). A layer is rendered again only after
+ * {@link #invalidate()} or when the surface size changes, so a regular frame is a single blit.
+ */
+public class LayerCache {
+
+    public interface Renderer {
+        /**
+         * Draws the static content for {@code mode} on an empty canvas of the given size.
+         */
+        void render(Canvas canvas, int mode, int width, int height);
+    }
+
+    private final Bitmap[] mBitmaps;
+    private final boolean[] mValid;
+    private final Canvas mCanvas = new Canvas();
+    private int mRenderCount;
+
+    public LayerCache(int modeCount) {
+        mBitmaps = new Bitmap[modeCount];
+        mValid = new boolean[modeCount];
+    }
+
+    /**
+     * Marks every layer as out of date, e.g. after the data or the insets changed.
+     */
+    public void invalidate() {
+        for (int i = 0; i < mValid.length; i++) {
+            mValid[i] = false;
+        }
+    }
+
+    /**
+     * @return the layer for {@code mode}, rendered with {@code renderer} first if it's out of date.
+     */
+    public Bitmap get(int mode, int width, int height, Renderer renderer) {
+        Bitmap bitmap = mBitmaps[mode];
+        if (bitmap == null || bitmap.getWidth() != width || bitmap.getHeight() != height) {
+            if (bitmap != null) {
+                bitmap.recycle();
+            }
+            bitmap = Bitmap.createBitmap(width, height, Bitmap.Config.ARGB_8888);
+            mBitmaps[mode] = bitmap;
+            mValid[mode] = false;
+        }
+
+        if (!mValid[mode]) {
+            bitmap.eraseColor(0);
+            mCanvas.setBitmap(bitmap);
+            renderer.render(mCanvas, mode, width, height);
+            mCanvas.setBitmap(null);
+            mValid[mode] = true;
+            mRenderCount++;
+        }
+        return bitmap;
+    }
+
+    /**
+     * @return how many times a layer was rendered, for instrumentation.
+     */
+    public int getRenderCount() {
+        return mRenderCount;
+    }
+
+    public void release() {
+        for (int i = 0; i < mBitmaps.length; i++) {
+            if (mBitmaps[i] != null) {
+                mBitmaps[i].recycle();
+                mBitmaps[i] = null;
+            }
+            mValid[i] = false;
+        }
+    }
+}
@@ -16,13 +16,41 @@ public class TextPaintHelper {
     private static final Typeface BOLD_TYPEFACE =
             Typeface.create(Typeface.SANS_SERIF, Typeface.BOLD);
 
+    private static final float sOutlineWidth = 1f;
+
     private final Resources mResources;
 
+    /**
+     * Paints for every text type in one combination of display mode and screen shape. They are
+     * shared, so callers must not modify them.
+     */
+    public static final class PaintSet {
+        public final Paint time;
+        public final Paint date;
+        public final Paint highTemperature;
+        public final Paint lowTemperature;
+        public final Paint forecast;
+
+        private PaintSet(Paint time, Paint date, Paint highTemperature, Paint lowTemperature, Paint forecast) {
+            this.time = time;
+            this.date = date;
+            this.highTemperature = highTemperature;
+            this.lowTemperature = lowTemperature;
+            this.forecast = forecast;
+        }
+    }
+
+    /**
+     * Indexed by {@link #indexOf(boolean, boolean, boolean, boolean)}.
+     */
+    private final PaintSet[] mPaintSets = new PaintSet[16];
+
     public enum Type {
         TIME(R.color.digital_text_interactive_primary, R.color.digital_text_ambient_primary, BOLD_TYPEFACE, true),
         DATE(R.color.digital_text_interactive_secondary, R.color.digital_text_ambient_secondary, NORMAL_TYPEFACE, true),
         HIGH_TEMPERATURE(R.color.digital_text_interactive_primary, R.color.digital_text_ambient_primary, BOLD_TYPEFACE, true),
-        LOW_TEMPERATURE(R.color.digital_text_interactive_secondary, R.color.digital_text_ambient_secondary, NORMAL_TYPEFACE, true);
+        LOW_TEMPERATURE(R.color.digital_text_interactive_secondary, R.color.digital_text_ambient_secondary, NORMAL_TYPEFACE, true),
+        FORECAST(R.color.digital_text_interactive_secondary, R.color.digital_text_ambient_secondary, NORMAL_TYPEFACE, true);
 
         private int mInteractiveColor;
         private int mAmbientColor;
@@ -57,6 +85,30 @@ public class TextPaintHelper {
         mResources = resources;
     }
 
+    /**
+     * Builds the paint sets for every combination of ambient, low-bit ambient, burn-in protection
+     * and round up front, so switching modes only picks another set.
+     */
+    public TextPaintHelper(Resources resources, WatchFaceLayout.Dimensions dimensions) {
+        this(resources);
+        for (int i = 0; i < 2; i++) {
+            boolean round = i == 1;
+            PaintSet interactive = createPaintSet(dimensions, false, false, false, round);
+            for (int j = 0; j < 4; j++) {
+                boolean lowBitAmbient = (j & 1) != 0;
+                boolean burnInProtection = (j & 2) != 0;
+                // Low-bit and burn-in protection only change how ambient mode is drawn.
+                mPaintSets[indexOf(false, lowBitAmbient, burnInProtection, round)] = interactive;
+                mPaintSets[indexOf(true, lowBitAmbient, burnInProtection, round)] =
+                        createPaintSet(dimensions, true, lowBitAmbient, burnInProtection, round);
+            }
+        }
+    }
+
+    public PaintSet get(boolean ambient, boolean lowBitAmbient, boolean burnInProtection, boolean round) {
+        return mPaintSets[indexOf(ambient, lowBitAmbient, burnInProtection, round)];
+    }
+
     public Paint forType(Type type) {
         Paint paint = new Paint();
         paint.setColor(mResources.getColor(type.getInteractiveColor()));
@@ -65,4 +117,44 @@ public class TextPaintHelper {
 
         return paint;
     }
+
+    private PaintSet createPaintSet(WatchFaceLayout.Dimensions dimensions, boolean ambient,
+                                    boolean lowBitAmbient, boolean burnInProtection, boolean round) {
+        // Screens that can't show gray levels or may burn in only get the outline of the text
+        // in ambient mode, to light as few pixels as possible. The forecast isn't drawn there.
+        boolean outline = ambient && (lowBitAmbient || burnInProtection);
+
+        Paint forecast = create(Type.FORECAST, ambient, lowBitAmbient, false, dimensions.forecastTextSize);
+        forecast.setTextAlign(Paint.Align.CENTER);
+        return new PaintSet(
+                create(Type.TIME, ambient, lowBitAmbient, outline,
+                        round ? dimensions.timeTextSizeRound : dimensions.timeTextSize),
+                create(Type.DATE, ambient, lowBitAmbient, outline,
+                        round ? dimensions.dateTextSizeRound : dimensions.dateTextSize),
+                create(Type.HIGH_TEMPERATURE, ambient, lowBitAmbient, outline,
+                        round ? dimensions.highTemperatureTextSizeRound : dimensions.highTemperatureTextSize),
+                create(Type.LOW_TEMPERATURE, ambient, lowBitAmbient, outline,
+                        round ? dimensions.lowTemperatureTextSizeRound : dimensions.lowTemperatureTextSize),
+                forecast);
+    }
+
+    private Paint create(Type type, boolean ambient, boolean lowBitAmbient, boolean outline, float textSize) {
+        Paint paint = forType(type);
+        if (ambient) {
+            paint.setColor(mResources.getColor(type.getAmbientColor()));
+        }
+        if (ambient && lowBitAmbient) {
+            paint.setAntiAlias(false);
+        }
+        if (outline) {
+            paint.setStyle(Paint.Style.STROKE);
+            paint.setStrokeWidth(sOutlineWidth);
+        }
+        paint.setTextSize(textSize);
+        return paint;
+    }
+
+    private static int indexOf(boolean ambient, boolean lowBitAmbient, boolean burnInProtection, boolean round) {
+        return (ambient ? 8 : 0) | (lowBitAmbient ? 4 : 0) | (burnInProtection ? 2 : 0) | (round ? 1 : 0);
+    }
 }
@@ -0,0 +1,42 @@
+package com.example.android.sunshine.app.ui;
+
+/**
+ * Reusable "HH:MM" / "HH:MM:SS" text buffer, so the time can be drawn every second with
+ * {@link android.graphics.Canvas#drawText(char[], int, int, float, float, android.graphics.Paint)}
+ * without allocating a new String per frame.
+ */
+public class TimeText {
+    private final char[] mChars = new char[8];
+    private int mLength;
+
+    public void set(int hour, int minute, int second, boolean showSeconds) {
+        putTwoDigits(0, hour);
+        mChars[2] = ':';
+        putTwoDigits(3, minute);
+        if (showSeconds) {
+            mChars[5] = ':';
+            putTwoDigits(6, second);
+            mLength = 8;
+        } else {
+            mLength = 5;
+        }
+    }
+
+    public char[] getChars() {
+        return mChars;
+    }
+
+    public int length() {
+        return mLength;
+    }
+
+    @Override
+    public String toString() {
+        return new String(mChars, 0, mLength);
+    }
+
+    private void putTwoDigits(int index, int value) {
+        mChars[index] = (char) ('0' + value / 10);
+        mChars[index + 1] = (char) ('0' + value % 10);
+    }
+}
@@ -0,0 +1,269 @@
+package com.example.android.sunshine.app.ui;
+
+import android.content.res.Resources;
+
+import com.example.android.sunshine.app.R;
+
+/**
+ * Computes where every element of the watch face is drawn, and at which text size, once per
+ * combination of insets, display mode and data. The results are cached as flat {@link Frame}s of
+ * floats, so drawing never reads resources or measures text.
+ */
+public class WatchFaceLayout {
+    public static final int MODE_INTERACTIVE = 0;
+    public static final int MODE_AMBIENT = 1;
+    private static final int MODE_COUNT = 2;
+
+    public interface TextMeasurer {
+        /**
+         * @return the width of {@code text} drawn with the high temperature paint at {@code textSize}.
+         */
+        float measureHighTemperature(String text, float textSize);
+    }
+
+    /**
+     * The layout dimensions as declared in resources, read once.
+     */
+    public static class Dimensions {
+        public float timeTextSize;
+        public float timeTextSizeRound;
+        public float timeInteractiveX;
+        public float timeInteractiveXRound;
+        public float timeAmbientX;
+        public float timeAmbientXRound;
+        public float timeY;
+
+        public float dateTextSize;
+        public float dateTextSizeRound;
+        public float dateInteractiveX;
+        public float dateInteractiveXRound;
+        public float dateAmbientX;
+        public float dateAmbientXRound;
+        public float dateY;
+
+        public float separatorY;
+
+        public float weatherIconX;
+        public float weatherIconXRound;
+        public float weatherIconY;
+        public int weatherIconSize;
+        public int weatherIconSizeRound;
+
+        public float highTemperatureTextSize;
+        public float highTemperatureTextSizeRound;
+        public float highTemperatureY;
+
+        public float lowTemperatureTextSize;
+        public float lowTemperatureTextSizeRound;
+        public float lowTemperatureInteractiveX;
+        public float lowTemperatureInteractiveXRound;
+        public float lowTemperatureAmbientX;
+        public float lowTemperatureAmbientXRound;
+        public float lowTemperatureY;
+
+        public float forecastTextSize;
+        public float forecastLabelY;
+        public float forecastTemperatureY;
+
+        public float chinLeftMargin;
+
+        public int burnInShift;
+
+        public static Dimensions fromResources(Resources resources) {
+            Dimensions d = new Dimensions();
+            d.timeTextSize = resources.getDimension(R.dimen.digital_time_text_size);
+            d.timeTextSizeRound = resources.getDimension(R.dimen.digital_time_text_size_round);
+            d.timeInteractiveX = resources.getDimension(R.dimen.digital_time_interactive_x_offset);
+            d.timeInteractiveXRound = resources.getDimension(R.dimen.digital_time_interactive_x_offset_round);
+            d.timeAmbientX = resources.getDimension(R.dimen.digital_time_ambient_x_offset);
+            d.timeAmbientXRound = resources.getDimension(R.dimen.digital_time_ambient_x_offset_round);
+            d.timeY = resources.getDimension(R.dimen.digital_time_y_offset);
+
+            d.dateTextSize = resources.getDimension(R.dimen.digital_date_text_size);
+            d.dateTextSizeRound = resources.getDimension(R.dimen.digital_date_text_size_round);
+            d.dateInteractiveX = resources.getDimension(R.dimen.digital_date_interactive_x_offset);
+            d.dateInteractiveXRound = resources.getDimension(R.dimen.digital_date_interactive_x_offset_round);
+            d.dateAmbientX = resources.getDimension(R.dimen.digital_date_ambient_x_offset);
+            d.dateAmbientXRound = resources.getDimension(R.dimen.digital_date_ambient_x_offset_round);
+            d.dateY = resources.getDimension(R.dimen.digital_date_y_offset);
+
+            d.separatorY = resources.getDimension(R.dimen.digital_separator_y_offset);
+
+            d.weatherIconX = resources.getDimension(R.dimen.digital_weather_icon_interactive_x_offset);
+            d.weatherIconXRound = resources.getDimension(R.dimen.digital_weather_icon_interactive_x_offset_round);
+            d.weatherIconY = resources.getDimension(R.dimen.digital_weather_icon_y_offset);
+            d.weatherIconSize = resources.getDimensionPixelSize(R.dimen.digital_weather_icon_size);
+            d.weatherIconSizeRound = resources.getDimensionPixelSize(R.dimen.digital_weather_icon_size_round);
+
+            d.highTemperatureTextSize = resources.getDimension(R.dimen.digital_high_temperature_text_size);
+            d.highTemperatureTextSizeRound = resources.getDimension(R.dimen.digital_high_temperature_text_size_round);
+            d.highTemperatureY = resources.getDimension(R.dimen.digital_high_temperature_y_offset);
+
+            d.lowTemperatureTextSize = resources.getDimension(R.dimen.digital_low_temperature_text_size);
+            d.lowTemperatureTextSizeRound = resources.getDimension(R.dimen.digital_low_temperature_text_size_round);
+            d.lowTemperatureInteractiveX = resources.getDimension(R.dimen.digital_low_temperature_interactive_x_offset);
+            d.lowTemperatureInteractiveXRound = resources.getDimension(R.dimen.digital_low_temperature_interactive_x_offset_round);
+            d.lowTemperatureAmbientX = resources.getDimension(R.dimen.digital_low_temperature_ambient_x_offset);
+            d.lowTemperatureAmbientXRound = resources.getDimension(R.dimen.digital_low_temperature_ambient_x_offset_round);
+            d.lowTemperatureY = resources.getDimension(R.dimen.digital_low_temperature_y_offset);
+
+            d.forecastTextSize = resources.getDimension(R.dimen.digital_forecast_text_size);
+            d.forecastLabelY = resources.getDimension(R.dimen.digital_forecast_label_y_offset);
+            d.forecastTemperatureY = resources.getDimension(R.dimen.digital_forecast_temperature_y_offset);
+
+            d.chinLeftMargin = resources.getDimension(R.dimen.digital_chin_left_margin);
+
+            d.burnInShift = resources.getDimensionPixelSize(R.dimen.digital_burn_in_shift);
+            return d;
+        }
+    }
+
+    /**
+     * Resolved positions and text sizes for one display mode.
+     */
+    public static class Frame {
+        public float timeX;
+        public float timeY;
+        public float timeTextSize;
+
+        public float dateX;
+        public float dateY;
+        public float dateTextSize;
+
+        public float separatorY;
+
+        public float weatherIconX;
+        /** Bottom edge of the weather icon. */
+        public float weatherIconY;
+        public int weatherIconSize;
+
+        public float highTemperatureX;
+        public float highTemperatureY;
+        public float highTemperatureTextSize;
+        public float highTemperatureWidth;
+
+        public float lowTemperatureX;
+        public float lowTemperatureY;
+        public float lowTemperatureTextSize;
+
+        public float forecastTextSize;
+        public float forecastLabelY;
+        public float forecastTemperatureY;
+        public float forecastColumnWidth;
+    }
+
+    private final Dimensions mDimensions;
+    private final TextMeasurer mTextMeasurer;
+    private final int mForecastColumns;
+
+    private final Frame[] mFrames = new Frame[MODE_COUNT];
+    private final boolean[] mValid = new boolean[MODE_COUNT];
+    private int mComputeCount;
+
+    private boolean mIsRound;
+    private boolean mHasChin;
+    private int mWidth;
+    private String mHighTemperature;
+
+    public WatchFaceLayout(Dimensions dimensions, TextMeasurer textMeasurer, int forecastColumns) {
+        mDimensions = dimensions;
+        mTextMeasurer = textMeasurer;
+        mForecastColumns = forecastColumns;
+        for (int i = 0; i < MODE_COUNT; i++) {
+            mFrames[i] = new Frame();
+        }
+    }
+
+    public void setInsets(boolean isRound, boolean hasChin) {
+        if (isRound != mIsRound || hasChin != mHasChin) {
+            mIsRound = isRound;
+            mHasChin = hasChin;
+            invalidate();
+        }
+    }
+
+    public void setWidth(int width) {
+        if (width != mWidth) {
+            mWidth = width;
+            invalidate();
+        }
+    }
+
+    public void setHighTemperature(String highTemperature) {
+        if (highTemperature == null ? mHighTemperature != null : !highTemperature.equals(mHighTemperature)) {
+            mHighTemperature = highTemperature;
+            invalidate();
+        }
+    }
+
+    public boolean isRound() {
+        return mIsRound;
+    }
+
+    /**
+     * @return the layout for {@code mode}, computed first if the insets, size or data changed.
+     */
+    public Frame get(int mode) {
+        if (!mValid[mode]) {
+            compute(mFrames[mode], mode == MODE_AMBIENT);
+            mValid[mode] = true;
+            mComputeCount++;
+        }
+        return mFrames[mode];
+    }
+
+    /**
+     * @return how many times a frame was computed, for instrumentation.
+     */
+    public int getComputeCount() {
+        return mComputeCount;
+    }
+
+    private void invalidate() {
+        for (int i = 0; i < MODE_COUNT; i++) {
+            mValid[i] = false;
+        }
+    }
+
+    private void compute(Frame frame, boolean ambient) {
+        Dimensions d = mDimensions;
+        boolean round = mIsRound;
+        float marginLeft = mHasChin ? d.chinLeftMargin : 0f;
+
+        frame.timeTextSize = round ? d.timeTextSizeRound : d.timeTextSize;
+        frame.timeX = (ambient
+                ? (round ? d.timeAmbientXRound : d.timeAmbientX)
+                : (round ? d.timeInteractiveXRound : d.timeInteractiveX)) + marginLeft;
+        frame.timeY = d.timeY;
+
+        frame.dateTextSize = round ? d.dateTextSizeRound : d.dateTextSize;
+        frame.dateX = (ambient
+                ? (round ? d.dateAmbientXRound : d.dateAmbientX)
+                : (round ? d.dateInteractiveXRound : d.dateInteractiveX)) + marginLeft;
+        frame.dateY = d.dateY;
+
+        frame.separatorY = d.separatorY;
+
+        frame.weatherIconSize = round ? d.weatherIconSizeRound : d.weatherIconSize;
+        frame.weatherIconX = (round ? d.weatherIconXRound : d.weatherIconX) + marginLeft;
+        frame.weatherIconY = d.weatherIconY;
+
+        frame.highTemperatureTextSize = round ? d.highTemperatureTextSizeRound : d.highTemperatureTextSize;
+        frame.highTemperatureWidth = mHighTemperature == null || mHighTemperature.length() == 0
+                ? 0f
+                : mTextMeasurer.measureHighTemperature(mHighTemperature, frame.highTemperatureTextSize);
+        frame.highTemperatureX = (mWidth / 2f) - (frame.highTemperatureWidth / 2);
+        frame.highTemperatureY = d.highTemperatureY;
+
+        frame.lowTemperatureTextSize = round ? d.lowTemperatureTextSizeRound : d.lowTemperatureTextSize;
+        frame.lowTemperatureX = (ambient
+                ? (round ? d.lowTemperatureAmbientXRound : d.lowTemperatureAmbientX)
+                : (round ? d.lowTemperatureInteractiveXRound : d.lowTemperatureInteractiveX)) + marginLeft;
+        frame.lowTemperatureY = d.lowTemperatureY;
+
+        frame.forecastTextSize = d.forecastTextSize;
+        frame.forecastLabelY = d.forecastLabelY;
+        frame.forecastTemperatureY = d.forecastTemperatureY;
+        frame.forecastColumnWidth = mWidth / (mForecastColumns + 1f);
+    }
+}
@@ -0,0 +1,170 @@
+package com.example.android.sunshine.app.ui;
+
+import android.content.res.Resources;
+import android.graphics.Bitmap;
+import android.graphics.BitmapFactory;
+import android.graphics.Canvas;
+import android.graphics.ColorMatrix;
+import android.graphics.ColorMatrixColorFilter;
+import android.graphics.Paint;
+import android.os.Handler;
+import android.os.Looper;
+import android.util.LruCache;
+import android.util.SparseBooleanArray;
+
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+/**
+ * Bounded cache of weather icons, scaled to the size the watch face draws them at, with a
+ * grayscale variant for ambient mode and a single-color variant for low-bit ambient displays.
+ * Icons are decoded and scaled on a background thread, never on the UI thread.
+ */
+public class WeatherIconCache {
+    public static final int VARIANT_INTERACTIVE = 0;
+    public static final int VARIANT_AMBIENT = 1;
+    public static final int VARIANT_LOW_BIT = 2;
+    private static final int VARIANT_COUNT = 3;
+
+    private static final int sMaxBytes = 512 * 1024;
+    private static final int sLowBitAlphaThreshold = 0x80;
+
+    public interface Callback {
+        /**
+         * Called on the UI thread once every variant of the icon is in the cache.
+         */
+        void onIconLoaded(int resourceId);
+    }
+
+    private final Resources mResources;
+    private final LruCache<Integer, Bitmap> mCache = new LruCache<Integer, Bitmap>(sMaxBytes) {
+        @Override
+        protected int sizeOf(Integer key, Bitmap value) {
+            return value.getByteCount();
+        }
+    };
+    private final ExecutorService mExecutor = Executors.newSingleThreadExecutor();
+    private final Handler mMainHandler = new Handler(Looper.getMainLooper());
+
+    private volatile int mSize;
+    private boolean mReleased;
+    // Resources queued or being decoded, only used on the main thread.
+    private final SparseBooleanArray mPending = new SparseBooleanArray();
+
+    public WeatherIconCache(Resources resources) {
+        mResources = resources;
+    }
+
+    /**
+     * Sets the size, in pixels, icons are drawn at. Icons cached at another size are dropped.
+     */
+    public void setSize(int size) {
+        if (size != mSize) {
+            mSize = size;
+            mCache.evictAll();
+            // Loads still running are for the old size, so they mustn't hold back new ones.
+            mPending.clear();
+        }
+    }
+
+    /**
+     * @return the cached icon, or null if it isn't loaded yet.
+     */
+    public Bitmap get(int resourceId, int variant) {
+        return mCache.get(key(resourceId, variant));
+    }
+
+    /**
+     * Decodes, scales and caches every variant of an icon in the background. Does nothing until
+     * {@link #setSize(int)} has been called, or while the icon is already being loaded at the
+     * current size. Must be called on the main thread.
+     */
+    public void load(final int resourceId, final Callback callback) {
+        final int size = mSize;
+        if (size <= 0 || mReleased || mPending.get(resourceId)) {
+            return;
+        }
+        mPending.put(resourceId, true);
+
+        mExecutor.execute(new Runnable() {
+            @Override
+            public void run() {
+                Bitmap source = BitmapFactory.decodeResource(mResources, resourceId);
+                if (source == null) {
+                    mMainHandler.post(new Runnable() {
+                        @Override
+                        public void run() {
+                            if (size == mSize) {
+                                mPending.delete(resourceId);
+                            }
+                        }
+                    });
+                    return;
+                }
+                Bitmap interactive = Bitmap.createScaledBitmap(source, size, size, true);
+                if (interactive != source) {
+                    source.recycle();
+                }
+                final Bitmap ambient = toGrayscale(interactive);
+                final Bitmap lowBit = toSingleColor(interactive);
+                final Bitmap scaled = interactive;
+
+                mMainHandler.post(new Runnable() {
+                    @Override
+                    public void run() {
+                        if (size == mSize) {
+                            mPending.delete(resourceId);
+                        }
+                        if (mReleased || size != mSize) {
+                            // Scaled for a layout that is no longer current.
+                            return;
+                        }
+                        mCache.put(key(resourceId, VARIANT_INTERACTIVE), scaled);
+                        mCache.put(key(resourceId, VARIANT_AMBIENT), ambient);
+                        mCache.put(key(resourceId, VARIANT_LOW_BIT), lowBit);
+                        callback.onIconLoaded(resourceId);
+                    }
+                });
+            }
+        });
+    }
+
+    /**
+     * Stops the background thread and drops the cached icons. Call once the watch face engine
+     * using this cache is destroyed; loads requested after this are ignored.
+     */
+    public void release() {
+        mReleased = true;
+        mExecutor.shutdownNow();
+        mCache.evictAll();
+    }
+
+    private static int key(int resourceId, int variant) {
+        return resourceId * VARIANT_COUNT + variant;
+    }
+
+    private static Bitmap toGrayscale(Bitmap source) {
+        Bitmap result = Bitmap.createBitmap(source.getWidth(), source.getHeight(), Bitmap.Config.ARGB_8888);
+        ColorMatrix colorMatrix = new ColorMatrix();
+        colorMatrix.setSaturation(0);
+        Paint paint = new Paint(Paint.FILTER_BITMAP_FLAG);
+        paint.setColorFilter(new ColorMatrixColorFilter(colorMatrix));
+        new Canvas(result).drawBitmap(source, 0, 0, paint);
+        return result;
+    }
+
+    /**
+     * Low-bit ambient displays can't show gray levels or anti-aliased edges, so the icon is
+     * reduced to a white silhouette.
+     */
+    private static Bitmap toSingleColor(Bitmap source) {
+        int width = source.getWidth();
+        int height = source.getHeight();
+        int[] pixels = new int[width * height];
+        source.getPixels(pixels, 0, width, 0, 0, width, height);
+        for (int i = 0; i < pixels.length; i++) {
+            pixels[i] = (pixels[i] >>> 24) >= sLowBitAlphaThreshold ? 0xffffffff : 0;
+        }
+        return Bitmap.createBitmap(pixels, width, height, Bitmap.Config.ARGB_8888);
+    }
+}
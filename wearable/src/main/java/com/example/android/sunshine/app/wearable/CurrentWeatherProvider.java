@@ -0,0 +1,139 @@
+package com.example.android.sunshine.app.wearable;
+
+import android.content.ContentProvider;
+import android.content.ContentResolver;
+import android.content.ContentValues;
+import android.content.Context;
+import android.database.Cursor;
+import android.database.MatrixCursor;
+import android.net.Uri;
+
+import com.example.android.sunshine.app.Utility;
+import com.example.android.sunshine.common.WeatherPayload;
+
+/**
+ * Read-only provider serving the current weather from the {@link WeatherCache}, so watch faces
+ * other than Sunshine's can show it, like a complication, without asking the phone themselves.
+ * The single row changes only when the phone pushes new weather; observers of
+ * {@link #CONTENT_URI} are notified then.
+ */
+public class CurrentWeatherProvider extends ContentProvider {
+    public static final String CONTENT_AUTHORITY = "com.example.android.sunshine.app.currentweather";
+    public static final Uri CONTENT_URI = Uri.parse("content://" + CONTENT_AUTHORITY + "/current");
+
+    public static final String CONTENT_ITEM_TYPE =
+            ContentResolver.CURSOR_ITEM_BASE_TYPE + "/" + CONTENT_AUTHORITY + "/current";
+
+    // OpenWeatherMap condition id.
+    public static final String COLUMN_WEATHER_ID = "weather_id";
+    // Formatted in the user's units, e.g. "21°".
+    public static final String COLUMN_HIGH_TEXT = "high_text";
+    public static final String COLUMN_LOW_TEXT = "low_text";
+    // Degrees Celsius.
+    public static final String COLUMN_HIGH = "high";
+    public static final String COLUMN_LOW = "low";
+    // android.resource:// URI of the condition icon, null if there is none.
+    public static final String COLUMN_ICON_URI = "icon_uri";
+    // When the phone fetched the weather, in milliseconds since the epoch.
+    public static final String COLUMN_SYNCED_AT = "synced_at";
+    // 1 if the weather is older than the phone's sync interval.
+    public static final String COLUMN_STALE = "stale";
+
+    private static final String[] sColumns = {
+            COLUMN_WEATHER_ID,
+            COLUMN_HIGH_TEXT,
+            COLUMN_LOW_TEXT,
+            COLUMN_HIGH,
+            COLUMN_LOW,
+            COLUMN_ICON_URI,
+            COLUMN_SYNCED_AT,
+            COLUMN_STALE
+    };
+
+    private WeatherCache mWeatherCache;
+
+    /**
+     * Lets observers know the cached weather changed.
+     */
+    public static void notifyChanged(Context context) {
+        context.getContentResolver().notifyChange(CONTENT_URI, null);
+    }
+
+    @Override
+    public boolean onCreate() {
+        mWeatherCache = new WeatherCache(getContext());
+        return true;
+    }
+
+    @Override
+    public Cursor query(Uri uri, String[] projection, String selection, String[] selectionArgs, String sortOrder) {
+        if (!CONTENT_URI.equals(uri)) {
+            throw new UnsupportedOperationException("Unknown uri: " + uri);
+        }
+
+        MatrixCursor cursor = new MatrixCursor(projection != null ? projection : sColumns, 1);
+        WeatherPayload payload = mWeatherCache.load();
+        if (payload != null && payload.getDayCount() > 0) {
+            long syncedAt = mWeatherCache.getDataTimestamp(payload);
+            MatrixCursor.RowBuilder row = cursor.newRow();
+            for (String column : cursor.getColumnNames()) {
+                row.add(valueOf(column, payload, syncedAt));
+            }
+        }
+        cursor.setNotificationUri(getContext().getContentResolver(), CONTENT_URI);
+        return cursor;
+    }
+
+    private Object valueOf(String column, WeatherPayload payload, long syncedAt) {
+        Context context = getContext();
+        switch (column) {
+            case COLUMN_WEATHER_ID:
+                return payload.weatherIds[0];
+            case COLUMN_HIGH_TEXT:
+                return Utility.formatTemperature(context, payload.highs[0], payload.isMetric);
+            case COLUMN_LOW_TEXT:
+                return Utility.formatTemperature(context, payload.lows[0], payload.isMetric);
+            case COLUMN_HIGH:
+                return payload.highs[0];
+            case COLUMN_LOW:
+                return payload.lows[0];
+            case COLUMN_ICON_URI:
+                int iconResourceId = Utility.getIconResourceForWeatherCondition(payload.weatherIds[0]);
+                if (iconResourceId == -1) {
+                    return null;
+                }
+                return new Uri.Builder()
+                        .scheme(ContentResolver.SCHEME_ANDROID_RESOURCE)
+                        .authority(context.getPackageName())
+                        .appendPath(String.valueOf(iconResourceId))
+                        .build()
+                        .toString();
+            case COLUMN_SYNCED_AT:
+                return syncedAt;
+            case COLUMN_STALE:
+                return WeatherCache.isFresh(syncedAt, System.currentTimeMillis()) ? 0 : 1;
+            default:
+                throw new IllegalArgumentException("Unknown column: " + column);
+        }
+    }
+
+    @Override
+    public String getType(Uri uri) {
+        return CONTENT_URI.equals(uri) ? CONTENT_ITEM_TYPE : null;
+    }
+
+    @Override
+    public Uri insert(Uri uri, ContentValues values) {
+        throw new UnsupportedOperationException("Current weather is read-only");
+    }
+
+    @Override
+    public int delete(Uri uri, String selection, String[] selectionArgs) {
+        throw new UnsupportedOperationException("Current weather is read-only");
+    }
+
+    @Override
+    public int update(Uri uri, ContentValues values, String selection, String[] selectionArgs) {
+        throw new UnsupportedOperationException("Current weather is read-only");
+    }
+}
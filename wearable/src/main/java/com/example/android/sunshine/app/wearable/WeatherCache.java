@@ -0,0 +1,96 @@
+package com.example.android.sunshine.app.wearable;
+
+import android.content.Context;
+import android.content.SharedPreferences;
+import android.util.Base64;
+
+import com.example.android.sunshine.common.WeatherPayload;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Persists the last {@link WeatherPayload} received from the phone, so the watch face can show
+ * weather as soon as it is created instead of waiting for a phone round trip.
+ */
+public class WeatherCache {
+    private static final String sPreferences = "weather_cache";
+    private static final String sKeyPayload = "payload";
+    private static final String sKeyReceivedAt = "received_at";
+    private static final String sKeyRequestedAt = "requested_at";
+
+    /**
+     * Cached weather older than this is shown as stale and refreshed from the phone. Matches the
+     * phone's sync interval.
+     */
+    public static final long MAX_AGE_MS = TimeUnit.HOURS.toMillis(3);
+
+    /**
+     * Minimum time between two weather requests to the phone.
+     */
+    public static final long MIN_REQUEST_INTERVAL_MS = TimeUnit.MINUTES.toMillis(15);
+
+    private final SharedPreferences mPreferences;
+
+    public WeatherCache(Context context) {
+        mPreferences = context.getSharedPreferences(sPreferences, Context.MODE_PRIVATE);
+    }
+
+    /**
+     * @return the cached payload, or null if nothing was cached yet.
+     */
+    public WeatherPayload load() {
+        String encoded = mPreferences.getString(sKeyPayload, null);
+        if (encoded == null) {
+            return null;
+        }
+        return WeatherPayload.fromByteArray(Base64.decode(encoded, Base64.NO_WRAP));
+    }
+
+    public void save(byte[] data) {
+        mPreferences.edit()
+                .putString(sKeyPayload, Base64.encodeToString(data, Base64.NO_WRAP))
+                .putLong(sKeyReceivedAt, System.currentTimeMillis())
+                .apply();
+    }
+
+    /**
+     * @return when the cached payload was received, 0 if nothing was cached yet.
+     */
+    public long getReceivedAt() {
+        return mPreferences.getLong(sKeyReceivedAt, 0);
+    }
+
+    /**
+     * @param payload a payload returned by {@link #load()}, may be null
+     * @return the time the payload's data was fetched by the phone, falling back to when it was
+     * received if the phone didn't report it.
+     */
+    public long getDataTimestamp(WeatherPayload payload) {
+        if (payload != null && payload.syncedAt > 0) {
+            return payload.syncedAt;
+        }
+        return getReceivedAt();
+    }
+
+    /**
+     * @return true if the last request that reached the phone is older than
+     * {@link #MIN_REQUEST_INTERVAL_MS}, so a request may be sent now.
+     */
+    public boolean canRequest(long now) {
+        long requestedAt = mPreferences.getLong(sKeyRequestedAt, 0);
+        return now - requestedAt >= MIN_REQUEST_INTERVAL_MS || now < requestedAt;
+    }
+
+    /**
+     * Records a request that was delivered to the phone. Only delivered requests count, so a
+     * watch that asked while the phone was away asks again as soon as it is back. The time is
+     * persisted so throttling also applies across watch face restarts.
+     */
+    public void recordRequest(long now) {
+        mPreferences.edit().putLong(sKeyRequestedAt, now).apply();
+    }
+
+    public static boolean isFresh(long dataTimestamp, long now) {
+        return dataTimestamp > 0 && now - dataTimestamp < MAX_AGE_MS;
+    }
+}
@@ -0,0 +1,42 @@
+package com.example.android.sunshine.app.wearable;
+
+import android.util.Log;
+
+import com.example.android.sunshine.common.WeatherPayload;
+import com.google.android.gms.wearable.DataEvent;
+import com.google.android.gms.wearable.DataEventBuffer;
+import com.google.android.gms.wearable.DataItem;
+import com.google.android.gms.wearable.WearableListenerService;
+
+/**
+ * Keeps the {@link WeatherCache} up to date with the weather the phone pushes, even when the
+ * Sunshine watch face isn't the active one, and notifies {@link CurrentWeatherProvider}
+ * observers.
+ */
+public class WeatherListenerService extends WearableListenerService {
+    private static final String LOG_TAG = WeatherListenerService.class.getSimpleName();
+
+    @Override
+    public void onDataChanged(DataEventBuffer dataEvents) {
+        boolean changed = false;
+        for (DataEvent dataEvent : dataEvents) {
+            DataItem dataItem = dataEvent.getDataItem();
+            if (dataEvent.getType() != DataEvent.TYPE_CHANGED
+                    || !WeatherPayload.PATH.equals(dataItem.getUri().getPath())) {
+                continue;
+            }
+
+            byte[] data = dataItem.getData();
+            if (WeatherPayload.fromByteArray(data) == null) {
+                Log.d(LOG_TAG, "Ignoring unreadable weather payload.");
+                continue;
+            }
+            new WeatherCache(this).save(data);
+            changed = true;
+        }
+
+        if (changed) {
+            CurrentWeatherProvider.notifyChanged(this);
+        }
+    }
+}
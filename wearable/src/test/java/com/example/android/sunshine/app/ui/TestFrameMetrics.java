@@ -0,0 +1,67 @@
+package com.example.android.sunshine.app.ui;
+
+import junit.framework.TestCase;
+
+import java.util.concurrent.TimeUnit;
+
+public class TestFrameMetrics extends TestCase {
+
+    public void testHistogramBuckets() {
+        FrameMetrics metrics = new FrameMetrics(0);
+        metrics.recordFrame(FrameMetrics.MODE_INTERACTIVE, TimeUnit.MICROSECONDS.toNanos(100));
+        metrics.recordFrame(FrameMetrics.MODE_INTERACTIVE, TimeUnit.MICROSECONDS.toNanos(300));
+        metrics.recordFrame(FrameMetrics.MODE_INTERACTIVE, TimeUnit.MILLISECONDS.toNanos(50));
+        metrics.recordFrame(FrameMetrics.MODE_AMBIENT, TimeUnit.MICROSECONDS.toNanos(100));
+
+        assertEquals(1, metrics.getHistogramCount(FrameMetrics.MODE_INTERACTIVE, 0));
+        assertEquals(1, metrics.getHistogramCount(FrameMetrics.MODE_INTERACTIVE, 1));
+        assertEquals(1, metrics.getHistogramCount(FrameMetrics.MODE_INTERACTIVE, FrameMetrics.BUCKET_COUNT - 1));
+        assertEquals(1, metrics.getHistogramCount(FrameMetrics.MODE_AMBIENT, 0));
+        assertEquals(3, metrics.getFrameCount(FrameMetrics.MODE_INTERACTIVE));
+        assertEquals(1, metrics.getFrameCount(FrameMetrics.MODE_AMBIENT));
+    }
+
+    public void testRecentPercentilesOnlyKeepLatestFrames() {
+        FrameMetrics metrics = new FrameMetrics(0);
+        for (int i = 0; i < 1000; i++) {
+            metrics.recordFrame(FrameMetrics.MODE_INTERACTIVE, TimeUnit.MILLISECONDS.toNanos(20));
+        }
+        for (int i = 0; i < 256; i++) {
+            metrics.recordFrame(FrameMetrics.MODE_INTERACTIVE, TimeUnit.MILLISECONDS.toNanos(1));
+        }
+        assertEquals(TimeUnit.MILLISECONDS.toNanos(1), metrics.getRecentPercentileNs(99));
+    }
+
+    public void testFramesPerHourPerMode() {
+        long hour = TimeUnit.HOURS.toMillis(1);
+        FrameMetrics metrics = new FrameMetrics(0);
+        for (int i = 0; i < 3600; i++) {
+            metrics.recordFrame(FrameMetrics.MODE_INTERACTIVE, 1000);
+        }
+        metrics.setMode(FrameMetrics.MODE_AMBIENT, hour);
+        for (int i = 0; i < 120; i++) {
+            metrics.recordFrame(FrameMetrics.MODE_AMBIENT, 1000);
+        }
+
+        assertEquals(3600, metrics.getFramesPerHour(FrameMetrics.MODE_INTERACTIVE, 3 * hour));
+        assertEquals(60, metrics.getFramesPerHour(FrameMetrics.MODE_AMBIENT, 3 * hour));
+    }
+
+    public void testInvalidateCountsAndReset() {
+        FrameMetrics metrics = new FrameMetrics(0);
+        metrics.recordInvalidate(FrameMetrics.SOURCE_TIMER);
+        metrics.recordInvalidate(FrameMetrics.SOURCE_TIMER);
+        metrics.recordInvalidate(FrameMetrics.SOURCE_DATA);
+        metrics.recordFrame(FrameMetrics.MODE_INTERACTIVE, 1000);
+
+        assertEquals(2, metrics.getInvalidateCount(FrameMetrics.SOURCE_TIMER));
+        assertEquals(1, metrics.getInvalidateCount(FrameMetrics.SOURCE_DATA));
+        assertEquals(0, metrics.getInvalidateCount(FrameMetrics.SOURCE_TAP));
+
+        metrics.reset(10);
+        assertEquals(0, metrics.getInvalidateCount(FrameMetrics.SOURCE_TIMER));
+        assertEquals(0, metrics.getFrameCount(FrameMetrics.MODE_INTERACTIVE));
+        assertEquals(0, metrics.getRecentPercentileNs(50));
+        assertEquals(10, metrics.getStartedAt());
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.android.sunshine.app.ui;
+
+import junit.framework.TestCase;
+
+public class TestWatchFaceLayout extends TestCase {
+    private static final int sWidth = 320;
+    private static final float sCharWidth = 0.5f;
+
+    private WatchFaceLayout mLayout;
+    private int mMeasureCount;
+
+    @Override
+    protected void setUp() throws Exception {
+        super.setUp();
+        mMeasureCount = 0;
+        mLayout = new WatchFaceLayout(createDimensions(), new WatchFaceLayout.TextMeasurer() {
+            @Override
+            public float measureHighTemperature(String text, float textSize) {
+                mMeasureCount++;
+                return text.length() * textSize * sCharWidth;
+            }
+        }, 3);
+        mLayout.setWidth(sWidth);
+        mLayout.setHighTemperature("21\u00B0");
+    }
+
+    public void testSquareLayout() {
+        mLayout.setInsets(false, false);
+
+        WatchFaceLayout.Frame interactive = mLayout.get(WatchFaceLayout.MODE_INTERACTIVE);
+        assertEquals(25f, interactive.timeX);
+        assertEquals(75f, interactive.timeY);
+        assertEquals(35f, interactive.timeTextSize);
+        assertEquals(33f, interactive.dateX);
+        assertEquals(10f, interactive.weatherIconX);
+        assertEquals(48, interactive.weatherIconSize);
+        assertEquals(135f, interactive.lowTemperatureX);
+        assertEquals(80f, interactive.forecastColumnWidth);
+
+        WatchFaceLayout.Frame ambient = mLayout.get(WatchFaceLayout.MODE_AMBIENT);
+        assertEquals(45f, ambient.timeX);
+        assertEquals(35f, ambient.timeTextSize);
+    }
+
+    public void testRoundLayout() {
+        mLayout.setInsets(true, false);
+
+        WatchFaceLayout.Frame interactive = mLayout.get(WatchFaceLayout.MODE_INTERACTIVE);
+        assertEquals(35f, interactive.timeX);
+        assertEquals(32f, interactive.timeTextSize);
+        assertEquals(45f, interactive.dateX);
+        assertEquals(25f, interactive.weatherIconX);
+        assertEquals(44, interactive.weatherIconSize);
+        assertEquals(150f, interactive.lowTemperatureX);
+
+        WatchFaceLayout.Frame ambient = mLayout.get(WatchFaceLayout.MODE_AMBIENT);
+        assertEquals(60f, ambient.timeX);
+        assertEquals(150f, ambient.lowTemperatureX);
+    }
+
+    public void testChinShiftsLeftAlignedElements() {
+        mLayout.setInsets(true, true);
+
+        WatchFaceLayout.Frame interactive = mLayout.get(WatchFaceLayout.MODE_INTERACTIVE);
+        assertEquals(35f + 15f, interactive.timeX);
+        assertEquals(45f + 15f, interactive.dateX);
+        assertEquals(25f + 15f, interactive.weatherIconX);
+        assertEquals(150f + 15f, interactive.lowTemperatureX);
+        // The high temperature is centered, so the chin doesn't move it.
+        assertEquals(sWidth / 2f - interactive.highTemperatureWidth / 2, interactive.highTemperatureX);
+    }
+
+    public void testCentersMeasuredHighTemperature() {
+        mLayout.setInsets(false, false);
+
+        WatchFaceLayout.Frame frame = mLayout.get(WatchFaceLayout.MODE_INTERACTIVE);
+        float expectedWidth = 3 * 30f * sCharWidth;
+        assertEquals(expectedWidth, frame.highTemperatureWidth);
+        assertEquals(sWidth / 2f - expectedWidth / 2, frame.highTemperatureX);
+    }
+
+    public void testCachesUntilInputsChange() {
+        mLayout.setInsets(false, false);
+        mLayout.get(WatchFaceLayout.MODE_INTERACTIVE);
+        mLayout.get(WatchFaceLayout.MODE_AMBIENT);
+        int computeCount = mLayout.getComputeCount();
+        int measureCount = mMeasureCount;
+
+        for (int i = 0; i < 100; i++) {
+            mLayout.get(i % 2 == 0 ? WatchFaceLayout.MODE_INTERACTIVE : WatchFaceLayout.MODE_AMBIENT);
+            mLayout.setInsets(false, false);
+            mLayout.setWidth(sWidth);
+            mLayout.setHighTemperature("21\u00B0");
+        }
+        assertEquals(computeCount, mLayout.getComputeCount());
+        assertEquals(measureCount, mMeasureCount);
+
+        mLayout.setHighTemperature("9\u00B0");
+        mLayout.get(WatchFaceLayout.MODE_INTERACTIVE);
+        assertEquals(computeCount + 1, mLayout.getComputeCount());
+
+        mLayout.setInsets(true, false);
+        mLayout.get(WatchFaceLayout.MODE_INTERACTIVE);
+        assertEquals(computeCount + 2, mLayout.getComputeCount());
+    }
+
+    public void testNoHighTemperature() {
+        mLayout.setInsets(false, false);
+        mLayout.setHighTemperature(null);
+
+        WatchFaceLayout.Frame frame = mLayout.get(WatchFaceLayout.MODE_INTERACTIVE);
+        assertEquals(0f, frame.highTemperatureWidth);
+        assertEquals(0, mMeasureCount);
+    }
+
+    /**
+     * Same values as res/values/dimens.xml at a density of 1, except for the round time size so
+     * round and square can be told apart.
+     */
+    private static WatchFaceLayout.Dimensions createDimensions() {
+        WatchFaceLayout.Dimensions d = new WatchFaceLayout.Dimensions();
+        d.timeTextSize = 35f;
+        d.timeTextSizeRound = 32f;
+        d.timeInteractiveX = 25f;
+        d.timeInteractiveXRound = 35f;
+        d.timeAmbientX = 45f;
+        d.timeAmbientXRound = 60f;
+        d.timeY = 75f;
+
+        d.dateTextSize = 15f;
+        d.dateTextSizeRound = 15f;
+        d.dateInteractiveX = 33f;
+        d.dateInteractiveXRound = 45f;
+        d.dateAmbientX = 33f;
+        d.dateAmbientXRound = 45f;
+        d.dateY = 95f;
+
+        d.separatorY = 110f;
+
+        d.weatherIconX = 10f;
+        d.weatherIconXRound = 25f;
+        d.weatherIconY = 170f;
+        d.weatherIconSize = 48;
+        d.weatherIconSizeRound = 44;
+
+        d.highTemperatureTextSize = 30f;
+        d.highTemperatureTextSizeRound = 30f;
+        d.highTemperatureY = 160f;
+
+        d.lowTemperatureTextSize = 25f;
+        d.lowTemperatureTextSizeRound = 25f;
+        d.lowTemperatureInteractiveX = 135f;
+        d.lowTemperatureInteractiveXRound = 150f;
+        d.lowTemperatureAmbientX = 135f;
+        d.lowTemperatureAmbientXRound = 150f;
+        d.lowTemperatureY = 157f;
+
+        d.forecastTextSize = 12f;
+        d.forecastLabelY = 187f;
+        d.forecastTemperatureY = 201f;
+
+        d.chinLeftMargin = 15f;
+        return d;
+    }
+}